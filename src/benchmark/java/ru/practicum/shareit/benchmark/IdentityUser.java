@@ -0,0 +1,40 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Пользователь с IDENTITY-ключом, как до перехода на последовательности: базовая линия для
+ * {@link InsertBenchmark}. Таблицу создает сам бенчмарк, в schema.sql ее нет.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "identity_users")
+@NoArgsConstructor
+public class IdentityUser {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "email", nullable = false)
+    private String email;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    IdentityUser(String email, String name) {
+        this.email = email;
+        this.name = name;
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.EmbeddedPostgresSupport;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static ru.practicum.shareit.booking.enums.BookingStatus.WAITING;
+
+/**
+ * Вставка пачек сущностей через репозитории в одной транзакции, результат - строк в секунду.
+ * {@code batchSize=0} выключает JDBC-батчинг. Базовая линия с IDENTITY-ключами - {@link #insertIdentityUsers()}:
+ * те же пользователи, но в таблицу с IDENTITY, для которой Hibernate выполняет каждый INSERT сразу.
+ * {@code database=postgres} запускает приложение в профиле {@code postgres} на встроенном PostgreSQL,
+ * где у каждого запроса есть сетевой обмен с сервером, в отличие от H2 в памяти.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InsertBenchmark {
+
+    private static final int ROWS = 100;
+    private static final String IDENTITY_USERS_DDL = "CREATE TABLE IF NOT EXISTS identity_users (" +
+            "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+            "email VARCHAR(512) NOT NULL, " +
+            "name VARCHAR(255) NOT NULL, " +
+            "CONSTRAINT UQ_IDENTITY_USER_EMAIL UNIQUE (email))";
+
+    @Param({"0", "50"})
+    private int batchSize;
+
+    @Param({"h2", "postgres"})
+    private String database;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private UserRepository userRepository;
+    private ItemRepository itemRepository;
+    private BookingRepository bookingRepository;
+    private User booker;
+    private Item item;
+    private LocalDateTime bookingsFrom;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void start() {
+        String[] datasource = "postgres".equals(database)
+                ? new String[]{"--spring.datasource.url=" + EmbeddedPostgresSupport.jdbcUrl(),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.driverClassName=org.postgresql.Driver",
+                        "--shareit.booking-summary.jobs.enabled=false",
+                        "--shareit.booking-phase.jobs.enabled=false",
+                        // IdentityUser не кэшируется, как и все сущности в профиле test
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false"}
+                : new String[]{"--spring.datasource.url=jdbc:h2:mem:shareit-insert"};
+        List<String> args = new ArrayList<>(List.of(datasource));
+        args.addAll(List.of("--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.transaction.interceptor=WARN"));
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("postgres".equals(database) ? "postgres" : "test")
+                .run(args.toArray(String[]::new));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        context.getBean(JdbcTemplate.class).execute(IDENTITY_USERS_DDL);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        userRepository = context.getBean(UserRepository.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        User owner = userRepository.save(new User(null, "owner@mail.com", "Owner"));
+        booker = userRepository.save(new User(null, "booker@mail.com", "Booker"));
+        item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        bookingsFrom = LocalDateTime.now().plusDays(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int insertUsers() {
+        List<User> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            long n = sequence++;
+            users.add(new User(null, "user" + n + "@mail.com", "User " + n));
+        }
+        return transactionTemplate.execute(status -> userRepository.saveAll(users).size());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int insertIdentityUsers() {
+        List<IdentityUser> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            long n = sequence++;
+            users.add(new IdentityUser("user" + n + "@mail.com", "User " + n));
+        }
+        return transactionTemplate.execute(status -> {
+            users.forEach(entityManager::persist);
+            return users.size();
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int insertBookings() {
+        List<Booking> bookings = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            // периоды не пересекаются, иначе в PostgreSQL сработало бы ограничение EX_BOOKING_ITEM_PERIOD
+            LocalDateTime start = bookingsFrom.plusHours(sequence++);
+            bookings.add(new Booking(0, start, start.plusHours(1), item, booker, WAITING));
+        }
+        return transactionTemplate.execute(status -> bookingRepository.saveAll(bookings).size());
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.LastBookingDto;
+import ru.practicum.shareit.booking.mappers.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mappers.CommentMapper;
+import ru.practicum.shareit.item.mappers.ItemMapper;
+import ru.practicum.shareit.item.mappers.ItemMapperImpl;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static ru.practicum.shareit.booking.enums.BookingStatus.APPROVED;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final ItemMapper itemMapper = new ItemMapperImpl();
+
+    private Item item;
+    private ItemDto itemDto;
+    private Booking booking;
+    private Comment comment;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        users = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            users.add(new User(id, "user" + id + "@mail.com", "User " + id));
+        }
+        User owner = users.get(0);
+        User booker = users.get(1);
+        LocalDateTime now = LocalDateTime.now();
+        item = new Item(1L, "Дрель", "Простая дрель", true, owner, null);
+        itemDto = itemMapper.toItemDto(item);
+        booking = new Booking(1L, now.minusDays(1), now.plusDays(1), item, booker, APPROVED);
+        comment = new Comment(1L, "Отличная дрель", item, booker, now);
+    }
+
+    @Benchmark
+    public ItemDto itemToItemDto() {
+        return itemMapper.toItemDto(item);
+    }
+
+    @Benchmark
+    public Item itemDtoToItem() {
+        return itemMapper.toItem(itemDto);
+    }
+
+    @Benchmark
+    public BookingDto bookingToReplyDto() {
+        return BookingMapper.INSTANCE.toBookingReplyDto(booking);
+    }
+
+    @Benchmark
+    public LastBookingDto bookingToLastBookingDto() {
+        return BookingMapper.INSTANCE.lastBookingDto(booking);
+    }
+
+    @Benchmark
+    public CommentDto commentToCommentDto() {
+        return CommentMapper.INSTANCE.toCommentDto(comment);
+    }
+
+    @Benchmark
+    public List<UserDto> usersToUserDtoList() {
+        return UserMapper.INSTANCE.toUserDtoList(users);
+    }
+}
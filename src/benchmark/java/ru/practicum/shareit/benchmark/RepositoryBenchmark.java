@@ -0,0 +1,89 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.LastBookingDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Запросы репозиториев без сервисного слоя. Вызовы идут вне транзакции,
+ * поэтому каждый из них сам открывает и закрывает сессию.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private static final long ITEM_ID = 1;
+    private static final long BOOKING_ID = 1;
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    private BookingRepository bookingRepository;
+    private ItemRepository itemRepository;
+    private ItemBookingSummaryRepository summaryRepository;
+    private long owner;
+    private long booker;
+    private List<Long> ownerItemIds;
+
+    @Setup
+    public void setUp(ShareItDataSet dataSet) {
+        bookingRepository = dataSet.getBean(BookingRepository.class);
+        itemRepository = dataSet.getBean(ItemRepository.class);
+        summaryRepository = dataSet.getBean(ItemBookingSummaryRepository.class);
+        owner = dataSet.ownerOfItem(ITEM_ID);
+        booker = dataSet.bookerOfBooking(BOOKING_ID);
+        ownerItemIds = itemRepository.findAllByUserIdOrderByIdAsc(owner, FIRST_PAGE).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<LastBookingDto> findLastBooking() {
+        return bookingRepository.findLastBooking(ITEM_ID, PageRequest.of(0, 1));
+    }
+
+    @Benchmark
+    public List<ItemBookingSummaryView> computeBookingSummaries() {
+        return summaryRepository.computeByItemIdIn(ownerItemIds, LocalDateTime.now());
+    }
+
+    @Benchmark
+    public long countBookings() {
+        return bookingRepository.countBookings(BookingRole.BOOKER, booker, BookingState.ALL).orElseThrow();
+    }
+
+    @Benchmark
+    public int findBookingsAfter() {
+        return bookingRepository.findBookingsAfter(BookingRole.BOOKER, booker, BookingState.ALL, null, 20).size();
+    }
+
+    @Benchmark
+    public boolean existsOverlapping() {
+        LocalDateTime start = LocalDateTime.now();
+        return bookingRepository.existsOverlapping(ITEM_ID, start, start.plusDays(1));
+    }
+}
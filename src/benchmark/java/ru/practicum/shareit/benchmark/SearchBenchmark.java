@@ -0,0 +1,93 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.EmbeddedPostgresSupport;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск вещей по подстроке на встроенном PostgreSQL со схемой профиля {@code postgres}, то есть с частичными
+ * GIN-индексами pg_trgm. В таблице 1 000 000 вещей, каждая десятая недоступна; название вещи {@code x} -
+ * одно из восьми слов, номер {@code x / 8 % 5} и сам {@code x}, описание - md5 от {@code x}.
+ * Режим {@link Mode#SampleTime} дает перцентили задержки первой страницы результатов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int ITEMS = 1_000_000;
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    /**
+     * Редкая подстрока названия (около 0,03 % вещей), частая (12,5 % вещей) и подстрока,
+     * которой нет ни в одной вещи.
+     */
+    @Param({"дрель 3-12", "дрель", "перфоратор"})
+    private String text;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("postgres")
+                .run("--spring.datasource.url=" + EmbeddedPostgresSupport.jdbcUrl(),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.driverClassName=org.postgresql.Driver",
+                        "--shareit.booking-summary.jobs.enabled=false",
+                        "--shareit.booking-phase.jobs.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN");
+        itemRepository = context.getBean(ItemRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute(String.format("INSERT INTO users (id, name, email) " +
+                "SELECT x, 'User ' || x, 'user' || x || '@mail.com' FROM generate_series(1, %d) x", USERS));
+        jdbcTemplate.execute(String.format("INSERT INTO items (id, name, description, available, user_id) " +
+                "SELECT x, (ARRAY['Дрель', 'Пила', 'Молоток', 'Отвертка', 'Лестница', 'Палатка', 'Велосипед', " +
+                "'Шуруповерт'])[x %% 8 + 1] || ' ' || (x / 8 %% 5) || '-' || x, " +
+                "'Описание вещи ' || md5(x::text), x %% 10 <> 0, x %% %d + 1 " +
+                "FROM generate_series(1, %d) x", USERS, ITEMS));
+        // иначе первые итерации совпали бы с автоочисткой только что залитой таблицы
+        jdbcTemplate.execute("VACUUM ANALYZE");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> search() {
+        return itemRepository.searchAvailableByNameOrDescription(text, FIRST_PAGE);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервисы вещей и бронирований на H2 с данными {@link ShareItDataSet}. Прогрев в 50 секунд: на одном процессоре
+ * после 15 секунд JIT еще компилировал, и пропускная способность росла от итерации к итерации в разы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final long ITEM_ID = 1;
+    private static final long BOOKING_ID = 1;
+
+    private ItemService itemService;
+    private BookingService bookingService;
+    private long owner;
+    private long booker;
+
+    @Setup
+    public void setUp(ShareItDataSet dataSet) {
+        itemService = dataSet.getBean(ItemService.class);
+        bookingService = dataSet.getBean(BookingService.class);
+        owner = dataSet.ownerOfItem(ITEM_ID);
+        booker = dataSet.bookerOfBooking(BOOKING_ID);
+    }
+
+    @Benchmark
+    public ItemDto getItem() {
+        return itemService.getItem(ITEM_ID, owner);
+    }
+
+    @Benchmark
+    public List<ItemDto> getAllItems() {
+        return itemService.getAllItems(owner, 0, 20);
+    }
+
+    @Benchmark
+    public List<BookingDto> getUserAllBookingFirstPage() {
+        return bookingService.getUserAllBooking(booker, "ALL", 0, 20);
+    }
+
+    @Benchmark
+    public List<BookingDto> getUserAllBookingPastLastPage() {
+        return bookingService.getUserAllBooking(booker, "PAST", 100_000, 20);
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+
+/**
+ * Приложение на встроенной H2, заполненной данными в пропорциях продакшена:
+ * 100 000 пользователей, 1 000 000 вещей и 10 000 000 бронирований, умноженные на {@code scale}.
+ * Владелец вещи {@code i} - пользователь {@code i % users + 1}, бронирование {@code b} относится
+ * к вещи {@code b % items + 1} и сделано пользователем {@code 7b % users + 1}.
+ */
+@State(Scope.Benchmark)
+public class ShareItDataSet {
+
+    private static final long USERS = 100_000;
+    private static final long ITEMS = 1_000_000;
+    private static final long BOOKINGS = 10_000_000;
+
+    @Param({"0.01"})
+    private double scale;
+
+    private ConfigurableApplicationContext context;
+    private long users;
+    private long items;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:shareit-benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN");
+        users = Math.max(1, Math.round(USERS * scale));
+        items = Math.max(1, Math.round(ITEMS * scale));
+        long bookings = Math.max(1, Math.round(BOOKINGS * scale));
+        seed(context.getBean(JdbcTemplate.class), bookings);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public long ownerOfItem(long itemId) {
+        return itemId % users + 1;
+    }
+
+    public long bookerOfBooking(long bookingId) {
+        return bookingId * 7 % users + 1;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate, long bookings) {
+        jdbcTemplate.execute(String.format("INSERT INTO users (id, name, email) " +
+                "SELECT X, 'User ' || X, 'user' || X || '@mail.com' " +
+                "FROM SYSTEM_RANGE(1, %d)", users));
+        jdbcTemplate.execute(String.format("INSERT INTO items (id, name, description, available, user_id) " +
+                "SELECT X, 'Item ' || X, 'Description of item ' || X, MOD(X, 10) <> 0, MOD(X, %d) + 1 " +
+                "FROM SYSTEM_RANGE(1, %d)", users, items));
+        jdbcTemplate.execute(String.format("INSERT INTO booking " +
+                "(id, start_date, end_date, item_id, booker_id, status, phase) " +
+                "SELECT X, " +
+                "DATEADD('HOUR', MOD(X, 20000) - 10000, LOCALTIMESTAMP), " +
+                "DATEADD('HOUR', MOD(X, 20000) - 9998, LOCALTIMESTAMP), " +
+                "MOD(X, %d) + 1, MOD(X * 7, %d) + 1, " +
+                "CASE MOD(X, 3) WHEN 0 THEN 'APPROVED' WHEN 1 THEN 'WAITING' ELSE 'REJECTED' END, " +
+                "CASE WHEN MOD(X, 20000) < 9998 THEN 'FINISHED' " +
+                "WHEN MOD(X, 20000) <= 10000 THEN 'ACTIVE' ELSE 'UPCOMING' END " +
+                "FROM SYSTEM_RANGE(1, %d)", items, users, bookings));
+        jdbcTemplate.execute(String.format("INSERT INTO comments (id, text, item_id, author_id, created) " +
+                "SELECT X, 'Comment ' || X, MOD(X, %d) + 1, MOD(X * 7, %d) + 1, LOCALTIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, %d)", items, users, Math.max(1, bookings / 10)));
+        jdbcTemplate.execute("UPDATE items i SET comment_count = " +
+                "(SELECT COUNT(*) FROM comments c WHERE c.item_id = i.id)");
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.loadtest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Вызовы, из которых складывается смешанная нагрузка, и их доля в ней.
+ */
+enum Endpoint {
+    GET_ITEM("GET /items/{itemId}", 20),
+    GET_ITEMS("GET /items", 12),
+    SEARCH_ITEMS("GET /items/search", 12),
+    GET_ITEM_AVAILABILITY("GET /items/{itemId}/availability", 6),
+    GET_BOOKINGS("GET /bookings", 10),
+    GET_OWNER_BOOKINGS("GET /bookings/owner", 8),
+    CREATE_BOOKING("POST /bookings", 4),
+    GET_USER("GET /users/{id}", 10),
+    GET_OWN_REQUESTS("GET /requests", 6),
+    GET_ALL_REQUESTS("GET /requests/all", 6),
+    GET_REQUEST("GET /requests/{requestId}", 6);
+
+    private static final int TOTAL_WEIGHT = totalWeight();
+
+    private final String label;
+    private final int weight;
+
+    Endpoint(String label, int weight) {
+        this.label = label;
+        this.weight = weight;
+    }
+
+    String label() {
+        return label;
+    }
+
+    static Endpoint pick(SplittableRandom random) {
+        int scaled = random.nextInt(TOTAL_WEIGHT);
+        for (Endpoint endpoint : values()) {
+            if (scaled < endpoint.weight) {
+                return endpoint;
+            }
+            scaled -= endpoint.weight;
+        }
+        return GET_ITEM;
+    }
+
+    private static int totalWeight() {
+        int total = 0;
+        for (Endpoint endpoint : values()) {
+            total += endpoint.weight;
+        }
+        return total;
+    }
+}
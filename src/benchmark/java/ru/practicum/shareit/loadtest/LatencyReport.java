@@ -0,0 +1,96 @@
+package ru.practicum.shareit.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограммы задержек и счетчики HTTP-статусов по каждому {@link Endpoint}.
+ * Задержки хранятся в микросекундах с точностью до трех значащих цифр, до одной минуты.
+ */
+final class LatencyReport {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int STATUS_IO_ERROR = -1;
+
+    private final Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Map<Integer, LongAdder>> statuses = new EnumMap<>(Endpoint.class);
+    private final AtomicLong startedNanos = new AtomicLong();
+    private volatile boolean recording;
+
+    LatencyReport() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            statuses.put(endpoint, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Запросы, выполненные до вызова, считаются прогревом и в отчет не попадают.
+     */
+    void startRecording() {
+        startedNanos.set(System.nanoTime());
+        recording = true;
+    }
+
+    void record(Endpoint endpoint, int status, long latencyNanos) {
+        if (!recording) {
+            return;
+        }
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS);
+        histograms.get(endpoint).recordValue(micros);
+        statuses.get(endpoint).computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    void recordFailure(Endpoint endpoint, long latencyNanos) {
+        record(endpoint, STATUS_IO_ERROR, latencyNanos);
+    }
+
+    Map<String, Object> toMap() {
+        double seconds = (System.nanoTime() - startedNanos.get()) / 1e9;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long total = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = histograms.get(endpoint);
+            long count = histogram.getTotalCount();
+            total += count;
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", count);
+            result.put("throughput", count / seconds);
+            result.put("statuses", statusCounts(endpoint));
+            result.put("latencyMs", latencies(histogram));
+            endpoints.put(endpoint.label(), result);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("durationSeconds", seconds);
+        report.put("requests", total);
+        report.put("throughput", total / seconds);
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private Map<String, Long> statusCounts(Endpoint endpoint) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        statuses.get(endpoint).forEach((status, count) ->
+                counts.put(status == STATUS_IO_ERROR ? "io-error" : String.valueOf(status), count.sum()));
+        return counts;
+    }
+
+    private static Map<String, Double> latencies(Histogram histogram) {
+        Map<String, Double> latencies = new LinkedHashMap<>();
+        latencies.put("mean", histogram.getMean() / 1000);
+        latencies.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+        latencies.put("p90", histogram.getValueAtPercentile(90) / 1000.0);
+        latencies.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+        latencies.put("p99.9", histogram.getValueAtPercentile(99.9) / 1000.0);
+        latencies.put("max", histogram.getMaxValue() / 1000.0);
+        return latencies;
+    }
+}
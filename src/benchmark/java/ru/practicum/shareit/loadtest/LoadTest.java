@@ -0,0 +1,130 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.phase.BookingPhaseService;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный тест всего приложения по HTTP. Поднимает {@link ShareItApp} на случайном порту
+ * (по умолчанию на H2 из профиля test), заполняет базу {@link LoadTestDataGenerator} и в
+ * {@code --loadtest.threads} потоков выполняет смешанные запросы {@link Endpoint}. После прогрева
+ * задержки пишутся в гистограммы, отчет в JSON сохраняется в {@code --loadtest.report}.
+ */
+public final class LoadTest {
+
+    private static final int BOOKING_SUMMARY_BATCH = 500;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles(options.profile())
+                .run(withDefaults(options.applicationArgs()));
+        try {
+            LoadTestData data = new LoadTestDataGenerator(context.getBean(JdbcTemplate.class), options).generate();
+            // данные вставлены в обход сервисов, сводки бронирований строятся сверкой, как после миграции
+            context.getBean(ItemBookingSummaryService.class).reconcile(BOOKING_SUMMARY_BATCH);
+            context.getBean(BookingPhaseService.class).refill();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LatencyReport report = run("http://localhost:" + port, data, options);
+            write(report, options);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static LatencyReport run(String baseUrl, LoadTestData data, LoadTestOptions options)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        LatencyReport report = new LatencyReport();
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.threads());
+        for (int worker = 0; worker < options.threads(); worker++) {
+            SplittableRandom random = new SplittableRandom(options.seed() + worker);
+            TrafficGenerator traffic = new TrafficGenerator(baseUrl, data, random);
+            workers.execute(() -> drive(client, traffic, report, end));
+        }
+        TimeUnit.NANOSECONDS.sleep(warmupEnd - System.nanoTime());
+        report.startRecording();
+        workers.shutdown();
+        workers.awaitTermination(options.durationSeconds() + 60, TimeUnit.SECONDS);
+        return report;
+    }
+
+    private static void drive(HttpClient client, TrafficGenerator traffic, LatencyReport report, long end) {
+        while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+            Endpoint endpoint = traffic.nextEndpoint();
+            HttpRequest request = traffic.request(endpoint);
+            long started = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                report.record(endpoint, response.statusCode(), System.nanoTime() - started);
+            } catch (IOException e) {
+                report.recordFailure(endpoint, System.nanoTime() - started);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void write(LatencyReport report, LoadTestOptions options) throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("options", options.describe());
+        result.putAll(report.toMap());
+        String json = new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValueAsString(result);
+        if (options.report().getParent() != null) {
+            Files.createDirectories(options.report().getParent());
+        }
+        Files.writeString(options.report(), json);
+        System.out.println(json);
+    }
+
+    /**
+     * Случайный порт, тихий лог и настройки продакшена, которые профиль test переопределяет
+     * (бюджет SQL-запросов, кэш второго уровня), если они не заданы в аргументах явно.
+     */
+    private static String[] withDefaults(String[] args) {
+        List<String> result = new ArrayList<>(Arrays.asList(args));
+        for (String option : new String[]{"--server.port=0", "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN", "--logging.level.org.springframework.transaction.interceptor=WARN",
+                "--shareit.sql.budget.fail-on-exceed=false",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=true",
+                "--shareit.booking-summary.jobs.enabled=true", "--shareit.booking-phase.jobs.enabled=true"}) {
+            String name = option.substring(0, option.indexOf('=') + 1);
+            if (result.stream().noneMatch(arg -> arg.startsWith(name))) {
+                result.add(option);
+            }
+        }
+        return result.toArray(new String[0]);
+    }
+}
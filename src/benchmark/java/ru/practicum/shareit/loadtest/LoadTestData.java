@@ -0,0 +1,34 @@
+package ru.practicum.shareit.loadtest;
+
+/**
+ * Что известно о сгенерированных данных: идентификаторы идут подряд с единицы,
+ * владелец вещи {@code i} хранится в {@code itemOwners[i - 1]}.
+ */
+final class LoadTestData {
+
+    private final int users;
+    private final int requests;
+    private final long[] itemOwners;
+
+    LoadTestData(int users, int requests, long[] itemOwners) {
+        this.users = users;
+        this.requests = requests;
+        this.itemOwners = itemOwners;
+    }
+
+    int users() {
+        return users;
+    }
+
+    int items() {
+        return itemOwners.length;
+    }
+
+    int requests() {
+        return requests;
+    }
+
+    long ownerOf(long itemId) {
+        return itemOwners[(int) itemId - 1];
+    }
+}
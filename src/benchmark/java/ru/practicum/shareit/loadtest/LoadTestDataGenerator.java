@@ -0,0 +1,137 @@
+package ru.practicum.shareit.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.enums.BookingPhase;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Детерминированный генератор данных: при одинаковых seed и объемах порождает одни и те же строки.
+ * Вставляет явные идентификаторы обычным JDBC, поэтому работает и на H2, и на PostgreSQL,
+ * а затем переставляет последовательности за последний id, чтобы POST-запросы не конфликтовали с ними.
+ * Бронирования одной вещи не пересекаются: каждое занимает свой трехдневный слот.
+ */
+final class LoadTestDataGenerator {
+
+    static final String[] NOUNS = {"Дрель", "Пила", "Молоток", "Палатка", "Велосипед", "Лестница",
+            "Шуруповерт", "Самокат", "Гитара", "Проектор"};
+    private static final String[] ADJECTIVES = {"новая", "старая", "мощная", "легкая", "складная",
+            "профессиональная", "детская", "туристическая"};
+    private static final String[] STATUSES = {"APPROVED", "APPROVED", "WAITING", "REJECTED"};
+    private static final int BATCH_SIZE = 1_000;
+    private static final int SLOT_DAYS = 3;
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadTestOptions options;
+    private final LocalDateTime base = LocalDate.now().atStartOfDay();
+
+    LoadTestDataGenerator(JdbcTemplate jdbcTemplate, LoadTestOptions options) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.options = options;
+    }
+
+    LoadTestData generate() {
+        SplittableRandom random = new SplittableRandom(options.seed());
+        int users = options.users();
+        int requests = options.requests();
+        int items = options.items();
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int id = 1; id <= users; id++) {
+            rows.add(new Object[]{id, "User " + id, "user" + id + "@loadtest.ru"});
+        }
+        insert("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", rows);
+
+        for (int id = 1; id <= requests; id++) {
+            rows.add(new Object[]{id, "Нужна " + noun(random).toLowerCase(), randomUser(random, users),
+                    timestamp(base.minusHours(random.nextInt(24 * 365)))});
+        }
+        insert("INSERT INTO requests (id, description, requestor_id, created) VALUES (?, ?, ?, ?)", rows);
+
+        long[] owners = new long[items];
+        for (int id = 1; id <= items; id++) {
+            owners[id - 1] = randomUser(random, users);
+            String noun = noun(random);
+            Object requestId = requests > 0 && random.nextInt(10) == 0 ? random.nextInt(requests) + 1 : null;
+            rows.add(new Object[]{id, noun + " " + id, ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " +
+                    noun.toLowerCase(), random.nextInt(10) != 0, owners[id - 1], requestId});
+        }
+        insert("INSERT INTO items (id, name, description, available, user_id, request_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+        int bookings = options.bookings();
+        LocalDateTime now = LocalDateTime.now();
+        long slots = (bookings + items - 1) / items;
+        LocalDateTime firstSlot = base.minusDays(slots / 2 * SLOT_DAYS);
+        long[] bookers = new long[bookings];
+        for (int id = 1; id <= bookings; id++) {
+            int itemIndex = (id - 1) % items;
+            long slot = (id - 1) / items;
+            long booker = randomUser(random, users);
+            if (booker == owners[itemIndex]) {
+                booker = booker % users + 1;
+            }
+            bookers[id - 1] = booker;
+            LocalDateTime start = firstSlot.plusDays(slot * SLOT_DAYS).plusHours(random.nextInt(24));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(47));
+            rows.add(new Object[]{id, timestamp(start), timestamp(end), itemIndex + 1, booker,
+                    STATUSES[random.nextInt(STATUSES.length)], BookingPhase.at(start, end, now).name()});
+        }
+        insert("INSERT INTO booking (id, start_date, end_date, item_id, booker_id, status, phase) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+
+        int comments = bookings == 0 ? 0 : options.comments();
+        for (int id = 1; id <= comments; id++) {
+            int booking = random.nextInt(bookings);
+            rows.add(new Object[]{id, "Отзыв " + id, booking % items + 1, bookers[booking],
+                    timestamp(base.minusHours(random.nextInt(24 * 365)))});
+        }
+        insert("INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.update("UPDATE items i SET comment_count = " +
+                "(SELECT COUNT(*) FROM comments c WHERE c.item_id = i.id)");
+
+        restartSequence("users_seq", users);
+        restartSequence("requests_seq", requests);
+        restartSequence("items_seq", items);
+        restartSequence("booking_seq", bookings);
+        restartSequence("comments_seq", comments);
+        return new LoadTestData(users, requests, owners);
+    }
+
+    static String noun(SplittableRandom random) {
+        return NOUNS[random.nextInt(NOUNS.length)];
+    }
+
+    private static long randomUser(SplittableRandom random, int users) {
+        return random.nextInt(users) + 1;
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return Timestamp.valueOf(time);
+    }
+
+    /**
+     * Вставляет накопленные строки пачками и очищает список для следующей таблицы.
+     */
+    private void insert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+        rows.clear();
+    }
+
+    /**
+     * Pooled-оптимизатор Hibernate считает значение последовательности верхней границей блока,
+     * поэтому первый выданный id будет {@code lastId + 1}.
+     */
+    private void restartSequence(String sequence, long lastId) {
+        jdbcTemplate.execute(String.format("ALTER SEQUENCE %s RESTART WITH %d", sequence,
+                lastId + ID_ALLOCATION_SIZE));
+    }
+}
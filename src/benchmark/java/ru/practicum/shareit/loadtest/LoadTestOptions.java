@@ -0,0 +1,105 @@
+package ru.practicum.shareit.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Параметры запуска вида {@code --loadtest.<name>=<value>}. Остальные аргументы передаются
+ * приложению, например {@code --spring.datasource.url=jdbc:postgresql://localhost:5432/shareit}.
+ */
+final class LoadTestOptions {
+
+    private static final String PREFIX = "--loadtest.";
+
+    private final Map<String, String> values = new HashMap<>();
+    private final List<String> applicationArgs = new ArrayList<>();
+
+    private LoadTestOptions() {
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (arg.startsWith(PREFIX) && arg.contains("=")) {
+                int separator = arg.indexOf('=');
+                options.values.put(arg.substring(PREFIX.length(), separator), arg.substring(separator + 1));
+            } else {
+                options.applicationArgs.add(arg);
+            }
+        }
+        return options;
+    }
+
+    String profile() {
+        return values.getOrDefault("profile", "test");
+    }
+
+    long seed() {
+        return longValue("seed", 42);
+    }
+
+    int users() {
+        return (int) longValue("users", 1_000);
+    }
+
+    int items() {
+        return (int) longValue("items", 10_000);
+    }
+
+    int bookings() {
+        return (int) longValue("bookings", 50_000);
+    }
+
+    int comments() {
+        return (int) longValue("comments", 10_000);
+    }
+
+    int requests() {
+        return (int) longValue("requests", 2_000);
+    }
+
+    int threads() {
+        return (int) longValue("threads", 16);
+    }
+
+    long warmupSeconds() {
+        return longValue("warmup", 10);
+    }
+
+    long durationSeconds() {
+        return longValue("duration", 60);
+    }
+
+    Path report() {
+        return Paths.get(values.getOrDefault("report", "target/loadtest-report.json"));
+    }
+
+    String[] applicationArgs() {
+        return applicationArgs.toArray(new String[0]);
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("profile", profile());
+        description.put("seed", seed());
+        description.put("users", users());
+        description.put("items", items());
+        description.put("bookings", bookings());
+        description.put("comments", comments());
+        description.put("requests", requests());
+        description.put("threads", threads());
+        description.put("warmupSeconds", warmupSeconds());
+        description.put("durationSeconds", durationSeconds());
+        return description;
+    }
+
+    private long longValue(String name, long defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import static ru.practicum.shareit.ServiceHeaders.X_USER_ID;
+
+/**
+ * Строит запросы к {@link Endpoint} со случайными, но воспроизводимыми при том же seed параметрами.
+ */
+final class TrafficGenerator {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] STATES = {"ALL", "ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"};
+
+    private final String baseUrl;
+    private final LoadTestData data;
+    private final SplittableRandom random;
+    private final LocalDateTime base = LocalDate.now().atStartOfDay();
+
+    TrafficGenerator(String baseUrl, LoadTestData data, SplittableRandom random) {
+        this.baseUrl = baseUrl;
+        this.data = data;
+        this.random = random;
+    }
+
+    Endpoint nextEndpoint() {
+        return Endpoint.pick(random);
+    }
+
+    HttpRequest request(Endpoint endpoint) {
+        long itemId = random.nextInt(data.items()) + 1;
+        long user = random.nextInt(data.users()) + 1;
+        switch (endpoint) {
+            case GET_ITEM:
+                return get("/items/" + itemId, random.nextBoolean() ? data.ownerOf(itemId) : user);
+            case GET_ITEMS:
+                return get("/items?from=0&size=20", data.ownerOf(itemId));
+            case SEARCH_ITEMS:
+                String noun = LoadTestDataGenerator.noun(random);
+                String text = noun.substring(0, Math.min(noun.length(), 3 + random.nextInt(3)));
+                return get("/items/search?from=0&size=20&text=" + URLEncoder.encode(text, StandardCharsets.UTF_8),
+                        user);
+            case GET_ITEM_AVAILABILITY:
+                LocalDateTime from = base.plusHours(random.nextInt(24 * 90));
+                return get("/items/" + itemId + "/availability?from=" + from + "&to=" + from.plusDays(2), user);
+            case GET_BOOKINGS:
+                return get("/bookings?state=" + state() + "&from=0&size=20", user);
+            case GET_OWNER_BOOKINGS:
+                return get("/bookings/owner?state=" + state() + "&from=0&size=20", data.ownerOf(itemId));
+            case CREATE_BOOKING:
+                long booker = user == data.ownerOf(itemId) ? user % data.users() + 1 : user;
+                LocalDateTime start = base.plusDays(1 + random.nextInt(365)).plusHours(random.nextInt(24));
+                String body = String.format("{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}",
+                        itemId, start, start.plusHours(1 + random.nextInt(47)));
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/bookings"))
+                        .timeout(TIMEOUT)
+                        .header(X_USER_ID, String.valueOf(booker))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            case GET_USER:
+                return get("/users/" + user, user);
+            case GET_OWN_REQUESTS:
+                return get("/requests", user);
+            case GET_ALL_REQUESTS:
+                return get("/requests/all?from=0&size=20", user);
+            case GET_REQUEST:
+                return get("/requests/" + (random.nextInt(Math.max(1, data.requests())) + 1), user);
+            default:
+                throw new IllegalArgumentException(endpoint.label());
+        }
+    }
+
+    private String state() {
+        return STATES[random.nextInt(STATES.length)];
+    }
+
+    private HttpRequest get(String path, long userId) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header(X_USER_ID, String.valueOf(userId))
+                .GET()
+                .build();
+    }
+}
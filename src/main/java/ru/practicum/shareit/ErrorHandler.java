@@ -7,12 +7,17 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.shareit.booking.exception.BookingException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
 import ru.practicum.shareit.item.exeption.ItemBookerException;
 import ru.practicum.shareit.item.exeption.ItemNotFoundException;
+import ru.practicum.shareit.metrics.StatementBudgetExceededException;
+import ru.practicum.shareit.pagination.CursorException;
 import ru.practicum.shareit.user.exception.EmailException;
 import ru.practicum.shareit.user.exception.UserException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 
+import javax.validation.ConstraintViolationException;
+
 @RestControllerAdvice
 public class ErrorHandler {
 
@@ -64,6 +69,22 @@ public class ErrorHandler {
         );
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseBody handleBookingOverlapException(final BookingOverlapException e) {
+        return new ResponseBody(
+                e.getMessage()
+        );
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseBody handleCursorException(final CursorException e) {
+        return new ResponseBody(
+                e.getMessage()
+        );
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ResponseBody handleItemException(final ItemNotFoundException e) {
@@ -79,6 +100,21 @@ public class ErrorHandler {
                 e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseBody handleConstraintViolationException(final ConstraintViolationException e) {
+        return new ResponseBody(
+                e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public ResponseBody handleStatementBudgetException(final StatementBudgetExceededException e) {
+        return new ResponseBody(
+                e.getMessage()
+        );
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ResponseBody handleThrowable(final Throwable e) {
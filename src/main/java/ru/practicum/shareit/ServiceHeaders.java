@@ -2,4 +2,7 @@ package ru.practicum.shareit;
 
 public class ServiceHeaders {
     public static final String X_USER_ID = "X-Sharer-User-Id";
+    public static final String X_NEXT_CURSOR = "X-Next-Cursor";
+    public static final String X_SQL_STATEMENTS = "X-Sql-Statements";
+    public static final String X_SQL_TIME = "X-Sql-Time-Ms";
 }
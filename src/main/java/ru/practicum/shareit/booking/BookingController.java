@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,13 +14,23 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.practicum.shareit.ServiceHeaders;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.metrics.StatementBudget;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Validated
 @RestController
@@ -26,7 +38,13 @@ import java.util.List;
 @RequestMapping("/bookings")
 public class BookingController {
 
+    /**
+     * Таймаут выгрузки: полчаса хватает на выгрузку любого владельца и все же закрывает зависший поток.
+     */
+    static final long EXPORT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<BookingDto> createBooking(
@@ -51,11 +69,16 @@ public class BookingController {
     }
 
     @GetMapping
+    @StatementBudget(2)
     public ResponseEntity<List<BookingDto>> getUserAllBooking(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "state", defaultValue = "ALL", required = false) String state,
             @RequestParam(value = "from", defaultValue = "0", required = false) @Min(0) Integer from,
-            @RequestParam(value = "size", defaultValue = "10", required = false) @Min(1) @Max(100) Integer size) {
+            @RequestParam(value = "size", defaultValue = "10", required = false) @Min(1) @Max(100) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            return withNextCursor(bookingService.getUserBookingsAfter(userId, state, cursor, size));
+        }
         return ResponseEntity.ok().body(bookingService.getUserAllBooking(userId, state, from, size));
     }
 
@@ -64,8 +87,51 @@ public class BookingController {
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "state", defaultValue = "ALL", required = false) String state,
             @RequestParam(value = "from", defaultValue = "0", required = false) @Min(0) Integer from,
-            @RequestParam(value = "size", defaultValue = "10", required = false) @Min(1) @Max(100) Integer size) {
+            @RequestParam(value = "size", defaultValue = "10", required = false) @Min(1) @Max(100) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            return withNextCursor(bookingService.getOwnerBookingsAfter(userId, state, cursor, size));
+        }
         return ResponseEntity.ok().body(bookingService.getAllBookingByOwner(userId, state, from, size));
 
     }
+
+    /**
+     * Все бронирования вещей владельца в NDJSON, по объекту на строку. Ответ пишется из потока
+     * бронирований по мере чтения, поэтому память не зависит от их числа.
+     * У выгрузки свой таймаут {@link #EXPORT_TIMEOUT_MILLIS}: таймаут асинхронных запросов по умолчанию
+     * (30 секунд у контейнера) обрывал бы большую выгрузку, а остальным запросам длинный не нужен.
+     * Ответ пишется прямо в {@link HttpServletResponse}: {@code StreamingResponseBody}, возвращенный
+     * из {@link WebAsyncTask}, пишется уже в следующей асинхронной обработке, снова с таймаутом по умолчанию.
+     */
+    @GetMapping("/owner/export")
+    public WebAsyncTask<Void> exportOwnerBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  HttpServletResponse response) {
+        // до начала потока, чтобы неизвестный пользователь получил обычный ответ об ошибке
+        bookingService.checkUserExists(userId);
+        return new WebAsyncTask<>(EXPORT_TIMEOUT_MILLIS, () -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream output = new BufferedOutputStream(response.getOutputStream());
+            bookingService.exportOwnerBookings(userId, booking -> writeLine(output, booking));
+            output.flush();
+            return null;
+        });
+    }
+
+    private void writeLine(OutputStream output, BookingDto booking) {
+        try {
+            output.write(objectMapper.writeValueAsBytes(booking));
+            output.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ResponseEntity<List<BookingDto>> withNextCursor(CursorPage<BookingDto> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(ServiceHeaders.X_NEXT_CURSOR, page.getNextCursor());
+        }
+        return response.body(page.getContent());
+    }
 }
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.TransactionHooks;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.exeption.ItemNotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Кэш занятых периодов вещей: бронирования со статусами WAITING и APPROVED.
+ * Интервалы вещи загружаются из базы при первом обращении, изменения из {@code BookingServiceImpl}
+ * применяются после коммита. Число вещей в кэше ограничено, давно не запрашиваемые вытесняются.
+ * Закончившиеся интервалы отбрасываются при загрузке и при каждом изменении вещи.
+ */
+@Slf4j
+@Component
+public class ItemAvailabilityCache {
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final Map<Long, ItemIntervals> intervals;
+    /**
+     * Версии вещей, которые сейчас загружаются; защищены тем же монитором, что и {@link #intervals}.
+     */
+    private final Map<Long, Loading> loadings = new HashMap<>();
+
+    public ItemAvailabilityCache(BookingRepository bookingRepository, ItemRepository itemRepository,
+                                 @Value("${shareit.availability.cache.max-items:10000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.intervals = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ItemIntervals> eldest) {
+                return size() > maxItems;
+            }
+        };
+    }
+
+    public boolean isFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        return !load(itemId).overlaps(toMicros(start), toMicros(end));
+    }
+
+    public void onBooked(long itemId, long bookingId, LocalDateTime start, LocalDateTime end) {
+        long from = toMicros(start);
+        long to = toMicros(end);
+        TransactionHooks.afterCommit(() -> update(itemId, cached -> cached.with(bookingId, from, to)));
+    }
+
+    public void onReleased(long itemId, long bookingId) {
+        TransactionHooks.afterCommit(() -> update(itemId, cached -> cached.without(bookingId)));
+    }
+
+    /**
+     * Забывает вещи, бронирования которых удалены в обход {@code BookingServiceImpl}, например каскадом
+     * вместе с пользователем. Вызывается после коммита: следующее обращение перечитает вещь из базы.
+     */
+    public void evict(Collection<Long> itemIds) {
+        synchronized (intervals) {
+            for (Long itemId : itemIds) {
+                intervals.remove(itemId);
+                changed(itemId);
+            }
+        }
+    }
+
+    private ItemIntervals load(long itemId) {
+        Loading loading;
+        long version;
+        synchronized (intervals) {
+            ItemIntervals cached = intervals.get(itemId);
+            if (cached != null) {
+                return cached;
+            }
+            loading = loadings.computeIfAbsent(itemId, id -> new Loading());
+            loading.loaders++;
+            version = loading.version;
+        }
+        ItemIntervals loaded = null;
+        try {
+            loaded = read(itemId);
+        } finally {
+            synchronized (intervals) {
+                // пока шел запрос, по этой вещи могли закоммитить изменение: такой снимок не кэшируем
+                if (loaded != null && loading.version == version) {
+                    intervals.putIfAbsent(itemId, loaded);
+                }
+                if (--loading.loaders == 0) {
+                    loadings.remove(itemId);
+                }
+            }
+        }
+        log.debug("Загружены занятые периоды вещи с id '{}': {}", itemId, loaded.size());
+        return loaded;
+    }
+
+    private ItemIntervals read(long itemId) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new ItemNotFoundException(String.format("Вещи с id %d нет в базе", itemId));
+        }
+        List<BookingIntervalDto> bookings = bookingRepository.findActiveIntervalsByItemId(itemId);
+        long[] ids = new long[bookings.size()];
+        long[] starts = new long[bookings.size()];
+        long[] ends = new long[bookings.size()];
+        for (int i = 0; i < bookings.size(); i++) {
+            ids[i] = bookings.get(i).getId();
+            starts[i] = toMicros(bookings.get(i).getStart());
+            ends[i] = toMicros(bookings.get(i).getEnd());
+        }
+        return ItemIntervals.ofSorted(ids, starts, ends).endingAfter(toMicros(LocalDateTime.now()));
+    }
+
+    private void update(long itemId, UnaryOperator<ItemIntervals> change) {
+        long now = toMicros(LocalDateTime.now());
+        synchronized (intervals) {
+            changed(itemId);
+            ItemIntervals cached = intervals.get(itemId);
+            if (cached != null) {
+                intervals.put(itemId, change.apply(cached).endingAfter(now));
+            }
+        }
+    }
+
+    private void changed(long itemId) {
+        Loading loading = loadings.get(itemId);
+        if (loading != null) {
+            loading.version++;
+        }
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static final class Loading {
+        private int loaders;
+        private long version;
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking.availability;
+
+import java.util.Arrays;
+
+/**
+ * Неизменяемый набор занятых интервалов [start, end) одной вещи в микросекундах.
+ * Интервалы отсортированы по началу, {@code maxEnds[i]} — наибольший конец среди первых i + 1 интервалов,
+ * поэтому пересечение с периодом проверяется одним бинарным поиском.
+ */
+final class ItemIntervals {
+
+    static final ItemIntervals EMPTY = new ItemIntervals(new long[0], new long[0], new long[0]);
+
+    private final long[] ids;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    private ItemIntervals(long[] ids, long[] starts, long[] ends) {
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new long[ends.length];
+        for (int i = 0; i < ends.length; i++) {
+            maxEnds[i] = i == 0 ? ends[i] : Math.max(maxEnds[i - 1], ends[i]);
+        }
+    }
+
+    /**
+     * Массивы должны быть отсортированы по началу интервала.
+     */
+    static ItemIntervals ofSorted(long[] ids, long[] starts, long[] ends) {
+        return new ItemIntervals(ids, starts, ends);
+    }
+
+    boolean overlaps(long from, long to) {
+        int last = lastStartBefore(to);
+        return last >= 0 && maxEnds[last] > from;
+    }
+
+    ItemIntervals with(long id, long start, long end) {
+        ItemIntervals base = without(id);
+        int size = base.ids.length;
+        int position = base.lastStartBefore(start + 1) + 1;
+        long[] newIds = new long[size + 1];
+        long[] newStarts = new long[size + 1];
+        long[] newEnds = new long[size + 1];
+        copyWithGap(base.ids, newIds, position);
+        copyWithGap(base.starts, newStarts, position);
+        copyWithGap(base.ends, newEnds, position);
+        newIds[position] = id;
+        newStarts[position] = start;
+        newEnds[position] = end;
+        return new ItemIntervals(newIds, newStarts, newEnds);
+    }
+
+    ItemIntervals without(long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return new ItemIntervals(remove(ids, i), remove(starts, i), remove(ends, i));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Интервалы, которые заканчиваются позже {@code time}; закончившиеся на проверку будущих периодов не влияют.
+     */
+    ItemIntervals endingAfter(long time) {
+        int kept = 0;
+        for (long end : ends) {
+            if (end > time) {
+                kept++;
+            }
+        }
+        if (kept == ends.length) {
+            return this;
+        }
+        long[] newIds = new long[kept];
+        long[] newStarts = new long[kept];
+        long[] newEnds = new long[kept];
+        int position = 0;
+        for (int i = 0; i < ends.length; i++) {
+            if (ends[i] > time) {
+                newIds[position] = ids[i];
+                newStarts[position] = starts[i];
+                newEnds[position] = ends[i];
+                position++;
+            }
+        }
+        return new ItemIntervals(newIds, newStarts, newEnds);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * Индекс последнего интервала, начинающегося строго раньше {@code time}, или -1.
+     */
+    private int lastStartBefore(long time) {
+        int low = 0;
+        int high = starts.length - 1;
+        int result = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < time) {
+                result = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return result;
+    }
+
+    private static void copyWithGap(long[] source, long[] target, int gap) {
+        System.arraycopy(source, 0, target, 0, gap);
+        System.arraycopy(source, gap, target, gap + 1, source.length - gap);
+    }
+
+    private static long[] remove(long[] source, int index) {
+        long[] result = Arrays.copyOf(source, source.length - 1);
+        System.arraycopy(source, index + 1, result, index, source.length - index - 1);
+        return result;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookingIntervalDto {
+
+    private Long id;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+}
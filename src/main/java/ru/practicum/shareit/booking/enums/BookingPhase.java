@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.enums;
+
+import java.time.LocalDateTime;
+
+/**
+ * Положение бронирования во времени. Хранится в колонке {@code booking.phase}, чтобы состояния
+ * FUTURE, CURRENT и PAST искались по индексу на равенство, а не сравнением дат с текущим моментом.
+ */
+public enum BookingPhase {
+    UPCOMING,
+    ACTIVE,
+    FINISHED;
+
+    public static BookingPhase at(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (end.isBefore(now)) {
+            return FINISHED;
+        }
+        return start.isAfter(now) ? UPCOMING : ACTIVE;
+    }
+}
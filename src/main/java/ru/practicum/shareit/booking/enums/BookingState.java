@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.enums;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Фильтр списков бронирований из параметра {@code state}. В отличие от {@link BookingStatus}
+ * не хранится: состояния по времени отбираются по {@link BookingPhase}, остальные - по статусу.
+ */
+public enum BookingState {
+    ALL,
+    CURRENT,
+    PAST,
+    FUTURE,
+    WAITING,
+    APPROVED,
+    REJECTED;
+
+    private static final Map<String, Optional<BookingState>> BY_NAME = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(Enum::name, Optional::of));
+
+    /**
+     * Состояние по имени из запроса. Неизвестное имя - частая ошибка клиента, поэтому разбор идет
+     * по готовой таблице, без исключения из {@code valueOf}.
+     */
+    public static Optional<BookingState> parse(String name) {
+        return name == null ? Optional.empty() : BY_NAME.getOrDefault(name, Optional.empty());
+    }
+}
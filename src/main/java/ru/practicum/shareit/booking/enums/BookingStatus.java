@@ -6,9 +6,5 @@ import lombok.AllArgsConstructor;
 public enum BookingStatus {
     WAITING,
     REJECTED,
-    APPROVED,
-    CURRENT,
-    FUTURE,
-    PAST,
-    ALL
+    APPROVED
 }
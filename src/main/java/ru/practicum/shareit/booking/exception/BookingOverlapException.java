@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.exception;
+
+public class BookingOverlapException extends RuntimeException {
+
+    public BookingOverlapException(final String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,10 @@
 package ru.practicum.shareit.booking.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import ru.practicum.shareit.booking.enums.BookingPhase;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -19,6 +19,9 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
 
@@ -29,12 +32,12 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "booking", schema = "public")
 @NoArgsConstructor
-@AllArgsConstructor
 public class Booking {
 
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private long id;
 
     @Column(name = "start_date", nullable = false)
@@ -56,4 +59,26 @@ public class Booking {
     @Column(name = "status")
     private BookingStatus status;
 
+    /**
+     * Вычисляется при каждой записи бронирования, дальше по времени ее сдвигает
+     * {@link ru.practicum.shareit.booking.phase.BookingPhaseService}.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", nullable = false)
+    private BookingPhase phase;
+
+    public Booking(long id, LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatus status) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.item = item;
+        this.booker = booker;
+        this.status = status;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updatePhase() {
+        phase = BookingPhase.at(start, end, LocalDateTime.now());
+    }
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.overlap;
+
+/**
+ * Защита от двух пересекающихся броней вещи, созданных параллельно. Проверка пересечений в сервисе
+ * только быстро отсекает уже сохраненные конфликты, гонку между ней и вставкой закрывает реализация.
+ * Реализация выбирается свойством {@code shareit.booking.overlap-guard}: {@code constraint} (по умолчанию)
+ * или {@code lock}.
+ */
+public interface BookingOverlapGuard {
+
+    /**
+     * Вызывается в транзакции создания брони до проверки пересечений.
+     */
+    void beforeOverlapCheck(long itemId);
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.overlap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ничего не блокирует: пересечение ожидающих и подтвержденных броней запрещает ограничение
+ * EX_BOOKING_ITEM_PERIOD из schema-postgresql.sql. Вставка, пересекающаяся с незавершенной чужой,
+ * ждет ее коммита и получает нарушение ограничения, сервис отвечает на него 409.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking.overlap-guard", havingValue = "constraint", matchIfMissing = true)
+public class ExclusionConstraintOverlapGuard implements BookingOverlapGuard {
+
+    @Override
+    public void beforeOverlapCheck(long itemId) {
+        // решает ограничение базы при вставке
+    }
+}
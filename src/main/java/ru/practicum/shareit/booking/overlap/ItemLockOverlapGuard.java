@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.overlap;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+/**
+ * Для баз без ограничений исключения, например H2 в тестах: блокирует строку вещи до конца транзакции,
+ * и создания броней одной вещи проверяют пересечения по очереди.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking.overlap-guard", havingValue = "lock")
+@RequiredArgsConstructor
+public class ItemLockOverlapGuard implements BookingOverlapGuard {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public void beforeOverlapCheck(long itemId) {
+        itemRepository.lockById(itemId);
+    }
+}
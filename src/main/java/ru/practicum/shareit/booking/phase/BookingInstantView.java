@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.phase;
+
+import java.time.LocalDateTime;
+
+public interface BookingInstantView {
+
+    Long getId();
+
+    LocalDateTime getInstant();
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking.phase;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Поворот колеса фаз бронирований каждый тик и загрузка сроков следующего окна. Выключается свойством
+ * {@code shareit.booking-phase.jobs.enabled=false}.
+ * <p>
+ * Насколько фаза в базе может отставать от времени:
+ * <ul>
+ *     <li>срок из загруженного окна переводится на первом тике после него, то есть с опозданием не больше
+ *     {@code shareit.booking-phase.tick-ms} и записи пачки;</li>
+ *     <li>срок дальше окна загружает одна из следующих загрузок раньше, чем он наступит: загрузка идет
+ *     чаще, чем длится окно, иначе приложение не стартует;</li>
+ *     <li>срок, прошедший мимо колеса (простой приложения, ошибка записи пачки, строка, записанная в обход
+ *     сервиса), догоняет следующая загрузка, то есть не позже {@code shareit.booking-phase.refill-interval-ms},
+ *     а после перезапуска - загрузка при готовности приложения.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking-phase.jobs.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingPhaseJobs {
+
+    private final BookingPhaseService phaseService;
+    private final int batchSize;
+
+    public BookingPhaseJobs(BookingPhaseService phaseService,
+                            @Value("${shareit.booking-phase.batch-size:500}") int batchSize,
+                            @Value("${shareit.booking-phase.window-ms:3600000}") long windowMillis,
+                            @Value("${shareit.booking-phase.refill-interval-ms:600000}") long refillIntervalMillis) {
+        if (refillIntervalMillis > windowMillis) {
+            throw new IllegalArgumentException(String.format("Загрузка раз в %d мс реже окна %d мс: сроки между " +
+                    "окнами переводились бы с опозданием", refillIntervalMillis, windowMillis));
+        }
+        this.phaseService = phaseService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Догоняет сроки, прошедшие, пока приложение стояло, и загружает первое окно.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        phaseService.refill();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-phase.tick-ms:1000}")
+    public void advance() {
+        phaseService.advance(batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-phase.refill-interval-ms:600000}",
+            initialDelayString = "${shareit.booking-phase.refill-interval-ms:600000}")
+    public void refill() {
+        phaseService.refill();
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.phase;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+public interface BookingPhaseService {
+
+    /**
+     * Ставит начало и конец сохраненного бронирования в колесо после коммита текущей транзакции,
+     * если они попадают в уже загруженное окно; более поздние сроки загрузит {@link #refill}.
+     */
+    void schedule(Booking booking);
+
+    /**
+     * Поворачивает колесо до текущего момента и переводит бронирования с наступившими сроками
+     * пачками по {@code batchSize}, каждая пачка в своей транзакции.
+     *
+     * @return число переведенных бронирований
+     */
+    int advance(int batchSize);
+
+    /**
+     * Переводит бронирования, сроки которых прошли мимо колеса (простой приложения, ошибка записи пачки,
+     * строки, записанные в обход сервиса), и загружает в колесо сроки следующего окна.
+     *
+     * @return число бронирований, переведенных догоняющим запросом
+     */
+    int refill();
+}
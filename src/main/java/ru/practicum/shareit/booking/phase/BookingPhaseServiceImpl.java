@@ -0,0 +1,189 @@
+package ru.practicum.shareit.booking.phase;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.TransactionHooks;
+import ru.practicum.shareit.booking.enums.BookingPhase;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фазы бронирований сдвигаются по колесу таймеров, в котором лежат сроки начала и конца бронирований
+ * загруженного окна: наступившие сроки переводятся пачками по id, без поиска по датам.
+ * Колесо живет в памяти экземпляра, поэтому сроки, потерянные при перезапуске или ошибке записи пачки,
+ * догоняет {@link #refill} запросом по индексам фазы; перевод идемпотентен, и несколько экземпляров
+ * приложения могут переводить одни и те же бронирования.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class BookingPhaseServiceImpl implements BookingPhaseService {
+
+    static final String TRANSITIONS_COUNTER = "shareit.booking.phase.transitions";
+    static final String PENDING_GAUGE = "shareit.booking.phase.pending";
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 3;
+    private static final List<BookingPhase> BEFORE_ACTIVE = List.of(BookingPhase.UPCOMING);
+    private static final List<BookingPhase> BEFORE_FINISHED = List.of(BookingPhase.UPCOMING, BookingPhase.ACTIVE);
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Duration window;
+    private final TimingWheel<Transition> wheel;
+    /**
+     * Конец окна, сроки которого уже в колесе; null, пока колесо не загружалось.
+     */
+    private LocalDateTime loadedUntil;
+
+    public BookingPhaseServiceImpl(BookingRepository bookingRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   ObjectProvider<Clock> clock,
+                                   @Value("${shareit.booking-phase.tick-ms:1000}") long tickMillis,
+                                   @Value("${shareit.booking-phase.window-ms:3600000}") long windowMillis) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.clock = clock.getIfAvailable(Clock::systemDefaultZone);
+        this.wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, this.clock.millis());
+        if (windowMillis > wheel.horizonMillis()) {
+            throw new IllegalArgumentException(String.format("Окно загрузки %d мс дальше горизонта колеса %d мс",
+                    windowMillis, wheel.horizonMillis()));
+        }
+        this.window = Duration.ofMillis(windowMillis);
+        Gauge.builder(PENDING_GAUGE, this, BookingPhaseServiceImpl::pending)
+                .description("Сроки бронирований, ожидающие в колесе")
+                .register(this.meterRegistry);
+    }
+
+    @Override
+    public void schedule(Booking booking) {
+        long bookingId = booking.getId();
+        BookingPhase phase = booking.getPhase();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        TransactionHooks.afterCommit(() -> enqueue(bookingId, phase, start, end));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int advance(int batchSize) {
+        List<Long> started = new ArrayList<>();
+        List<Long> ended = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(clock.millis(), transition ->
+                    (transition.getPhase() == BookingPhase.ACTIVE ? started : ended).add(transition.getBookingId()));
+        }
+        int advanced = update(started, BookingPhase.ACTIVE, BEFORE_ACTIVE, batchSize)
+                + update(ended, BookingPhase.FINISHED, BEFORE_FINISHED, batchSize);
+        if (advanced > 0) {
+            log.debug("Переведено {} бронирований по наступлению сроков", advanced);
+        }
+        return advanced;
+    }
+
+    /**
+     * Граница окна сдвигается до чтения сроков: бронирование, закоммиченное после чтения, увидит новую границу
+     * в {@link #schedule} и встанет в колесо само, а закоммиченное раньше попадет в выборку. Срок, попавший
+     * в колесо дважды, лишь повторит идемпотентный перевод.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int refill() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime until = now.plus(window);
+        LocalDateTime from;
+        synchronized (this) {
+            from = loadedUntil == null ? now : loadedUntil;
+            loadedUntil = until;
+        }
+        int swept = transactionTemplate.execute(status ->
+                bookingRepository.finishEnded(now) + bookingRepository.activateStarted(now));
+        List<BookingInstantView> starts = bookingRepository.findStartsBetween(from, until);
+        List<BookingInstantView> ends = bookingRepository.findEndsBetween(from, until);
+        synchronized (this) {
+            for (BookingInstantView start : starts) {
+                add(start.getInstant(), new Transition(start.getId(), BookingPhase.ACTIVE));
+            }
+            for (BookingInstantView end : ends) {
+                add(end.getInstant(), new Transition(end.getId(), BookingPhase.FINISHED));
+            }
+        }
+        if (swept > 0) {
+            log.warn("Догоняющим запросом переведено {} бронирований, сроки которых прошли мимо колеса", swept);
+        }
+        log.debug("В колесо загружено {} сроков бронирований до {}", starts.size() + ends.size(), until);
+        return swept;
+    }
+
+    private synchronized void enqueue(long bookingId, BookingPhase phase, LocalDateTime start, LocalDateTime end) {
+        if (loadedUntil == null) {
+            return;
+        }
+        if (phase == BookingPhase.UPCOMING && !start.isAfter(loadedUntil)) {
+            add(start, new Transition(bookingId, BookingPhase.ACTIVE));
+        }
+        if (phase != BookingPhase.FINISHED && end.isBefore(loadedUntil)) {
+            add(end, new Transition(bookingId, BookingPhase.FINISHED));
+        }
+    }
+
+    /**
+     * Срок считается наступившим строго после момента: для конца это условие PAST,
+     * начало переводится на миллисекунду позже, чем требует FUTURE.
+     */
+    private void add(LocalDateTime instant, Transition transition) {
+        long dueMillis = instant.atZone(clock.getZone()).toInstant().toEpochMilli() + 1;
+        if (!wheel.add(dueMillis, transition)) {
+            log.warn("Срок {} бронирования с id '{}' дальше горизонта колеса, его переведет догоняющий запрос",
+                    instant, transition.getBookingId());
+        }
+    }
+
+    private int update(List<Long> ids, BookingPhase phase, List<BookingPhase> from, int batchSize) {
+        int updated = 0;
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            List<Long> batch = ids.subList(i, Math.min(i + batchSize, ids.size()));
+            updated += transactionTemplate.execute(status -> bookingRepository.updatePhase(batch, phase, from));
+        }
+        if (updated > 0) {
+            Counter.builder(TRANSITIONS_COUNTER)
+                    .description("Бронирования, переведенные колесом в следующую фазу")
+                    .tag("phase", phase.name())
+                    .register(meterRegistry)
+                    .increment(updated);
+        }
+        return updated;
+    }
+
+    private synchronized double pending() {
+        return wheel.size();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Transition {
+        private final long bookingId;
+        private final BookingPhase phase;
+    }
+}
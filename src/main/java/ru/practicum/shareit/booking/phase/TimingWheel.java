@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking.phase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Иерархическое колесо таймеров. Нижний уровень делится на {@code wheelSize} ячеек по одному тику,
+ * ячейка каждого следующего уровня покрывает целый оборот предыдущего. Запись кладется на нижний уровень,
+ * который до нее дотягивается, и спускается ниже, когда старший уровень доходит до ее ячейки, поэтому
+ * добавление и срабатывание стоят O(1) на запись независимо от того, сколько записей ждет.
+ * <p>
+ * Запись срабатывает на первом тике не раньше своего срока, то есть опаздывает не больше чем на тик.
+ * Класс не потокобезопасен.
+ */
+public final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    /** Число тиков в ячейке каждого уровня. */
+    private final long[] spans;
+    private final List<List<List<Entry<T>>>> levels;
+    private final List<Entry<T>> expired = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levelCount < 1) {
+            throw new IllegalArgumentException(String.format("Некорректные размеры колеса: тик %d мс, %d ячеек, " +
+                    "%d уровней", tickMillis, wheelSize, levelCount));
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levelCount];
+        this.levels = new ArrayList<>(levelCount);
+        long span = 1;
+        for (int level = 0; level < levelCount; level++) {
+            spans[level] = span;
+            span = Math.multiplyExact(span, wheelSize);
+            List<List<Entry<T>>> buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new ArrayList<>());
+            }
+            levels.add(buckets);
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Насколько далеко вперед от текущего тика колесо гарантированно принимает записи.
+     */
+    public long horizonMillis() {
+        return spans[spans.length - 1] * (wheelSize - 1) * tickMillis;
+    }
+
+    /**
+     * Планирует {@code value} на момент {@code dueMillis}. Запись с наступившим сроком сработает
+     * при ближайшем {@link #advance}.
+     *
+     * @return false, если срок дальше горизонта колеса и запись не добавлена
+     */
+    public boolean add(long dueMillis, T value) {
+        // первый тик, не раньше срока
+        long fireTick = -Math.floorDiv(-dueMillis, tickMillis);
+        if (!place(new Entry<>(fireTick, value))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Поворачивает колесо до момента {@code nowMillis} и отдает записи, срок которых наступил.
+     */
+    public void advance(long nowMillis, Consumer<T> consumer) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        if (targetTick > currentTick) {
+            long previousTick = currentTick;
+            currentTick = targetTick;
+            // нижний уровень разбирается первым: спущенные сверху записи попадают только в ячейки впереди
+            for (int level = 0; level < spans.length; level++) {
+                for (Entry<T> entry : drain(level, previousTick, targetTick)) {
+                    place(entry);
+                }
+            }
+        }
+        size -= expired.size();
+        for (Entry<T> entry : expired) {
+            consumer.accept(entry.value);
+        }
+        expired.clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private List<Entry<T>> drain(int level, long previousTick, long targetTick) {
+        long from = Math.floorDiv(previousTick, spans[level]);
+        long to = Math.floorDiv(targetTick, spans[level]);
+        List<List<Entry<T>>> buckets = levels.get(level);
+        List<Entry<T>> drained = new ArrayList<>();
+        long slots = Math.min(to - from, wheelSize);
+        for (long slot = to - slots + 1; slot <= to; slot++) {
+            List<Entry<T>> bucket = buckets.get(Math.floorMod(slot, wheelSize));
+            drained.addAll(bucket);
+            bucket.clear();
+        }
+        return drained;
+    }
+
+    private boolean place(Entry<T> entry) {
+        if (entry.fireTick <= currentTick) {
+            expired.add(entry);
+            return true;
+        }
+        for (int level = 0; level < spans.length; level++) {
+            long slot = Math.floorDiv(entry.fireTick, spans[level]);
+            if (slot - Math.floorDiv(currentTick, spans[level]) < wheelSize) {
+                levels.get(level).get(Math.floorMod(slot, wheelSize)).add(entry);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Entry<T> {
+
+        private final long fireTick;
+        private final T value;
+
+        private Entry(long fireTick, T value) {
+            this.fireTick = fireTick;
+            this.value = value;
+        }
+    }
+}
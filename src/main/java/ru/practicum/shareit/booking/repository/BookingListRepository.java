@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.pagination.SeekCursor;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BookingListRepository {
+
+    /**
+     * Бронирования пользователя в роли {@code role}, отфильтрованные по {@code state} и упорядоченные
+     * по убыванию (start, id). Если задан {@code after}, выборка начинается строго после этого ключа.
+     * Общее число записей не считается.
+     */
+    List<Booking> findBookingsAfter(BookingRole role, long userId, BookingState state, SeekCursor after, int limit);
+
+    /**
+     * То же упорядочивание, но со смещением {@code offset}. Общее число записей не считается.
+     */
+    List<Booking> findBookingsPage(BookingRole role, long userId, BookingState state, long offset, int limit);
+
+    /**
+     * Число бронирований с тем же фильтром, что у выборок, вместе с проверкой пользователя: счет идет
+     * левым соединением от строки пользователя, поэтому пустой результат означает, что пользователя нет,
+     * а ноль - что у существующего пользователя нет подходящих бронирований.
+     */
+    Optional<Long> countBookings(BookingRole role, long userId, BookingState state);
+}
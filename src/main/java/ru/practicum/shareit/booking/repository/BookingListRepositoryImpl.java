@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.SeekCursor;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static ru.practicum.shareit.booking.repository.BookingStatePredicates.AFTER;
+import static ru.practicum.shareit.booking.repository.BookingStatePredicates.AFTER_ID;
+import static ru.practicum.shareit.booking.repository.BookingStatePredicates.AFTER_START;
+import static ru.practicum.shareit.booking.repository.BookingStatePredicates.BOOKING;
+import static ru.practicum.shareit.booking.repository.BookingStatePredicates.ITEM;
+import static ru.practicum.shareit.booking.repository.BookingStatePredicates.ITEM_OF_USER;
+import static ru.practicum.shareit.booking.repository.BookingStatePredicates.ORDER;
+import static ru.practicum.shareit.booking.repository.BookingStatePredicates.USER;
+import static ru.practicum.shareit.booking.repository.BookingStatePredicates.USER_ID;
+
+public class BookingListRepositoryImpl implements BookingListRepository {
+
+    private static final String QUERY_TIMER = "shareit.booking.queries";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Без приложения с метриками (например, в срезе {@code @DataJpaTest}) таймеры пишутся в пустой
+     * глобальный реестр и ничего не стоят.
+     */
+    public BookingListRepositoryImpl(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    @Override
+    public List<Booking> findBookingsAfter(BookingRole role, long userId, BookingState state,
+                                           SeekCursor after, int limit) {
+        return timed("after", role, state, () -> seek(role, userId, state, after, limit));
+    }
+
+    @Override
+    public List<Booking> findBookingsPage(BookingRole role, long userId, BookingState state,
+                                          long offset, int limit) {
+        return timed("page", role, state, () -> page(role, userId, state, offset, limit));
+    }
+
+    @Override
+    public Optional<Long> countBookings(BookingRole role, long userId, BookingState state) {
+        return timed("count", role, state, () -> count(role, userId, state));
+    }
+
+    private List<Booking> seek(BookingRole role, long userId, BookingState state, SeekCursor after, int limit) {
+        JPAQuery<Booking> query = selectBookings(role, userId, state);
+        if (after != null) {
+            query.where(AFTER)
+                    .set(AFTER_START, after.getStart())
+                    .set(AFTER_ID, after.getId());
+        }
+        return query.limit(limit).fetch();
+    }
+
+    private List<Booking> page(BookingRole role, long userId, BookingState state, long offset, int limit) {
+        return selectBookings(role, userId, state)
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+    }
+
+    private Optional<Long> count(BookingRole role, long userId, BookingState state) {
+        JPAQuery<Long> query = new JPAQuery<>(entityManager)
+                .select(BOOKING.count())
+                .from(USER);
+        if (role == BookingRole.OWNER) {
+            query.leftJoin(ITEM).on(ITEM_OF_USER);
+        }
+        return Optional.ofNullable(query.leftJoin(BOOKING).on(BookingStatePredicates.count(role, state))
+                .where(USER.getNumber("id", Long.class).eq(USER_ID))
+                .groupBy(USER.getNumber("id", Long.class))
+                .set(USER_ID, userId)
+                .fetchFirst());
+    }
+
+    private JPAQuery<Booking> selectBookings(BookingRole role, long userId, BookingState state) {
+        return new JPAQuery<>(entityManager)
+                .select(BOOKING)
+                .from(BOOKING)
+                .innerJoin(BOOKING.get("item", Item.class), ITEM).fetchJoin()
+                .innerJoin(BOOKING.get("booker", User.class), USER).fetchJoin()
+                .where(BookingStatePredicates.list(role, state))
+                .orderBy(ORDER)
+                .set(USER_ID, userId);
+    }
+
+    private <T> T timed(String query, BookingRole role, BookingState state, Supplier<T> call) {
+        return Timer.builder(QUERY_TIMER)
+                .description("Запросы списков бронирований по роли и состоянию")
+                .tag("query", query)
+                .tag("role", role.name())
+                .tag("state", state.name())
+                .register(meterRegistry)
+                .record(call);
+    }
+}
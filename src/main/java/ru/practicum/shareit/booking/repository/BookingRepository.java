@@ -1,109 +1,121 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
-import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.dto.LastBookingDto;
+import ru.practicum.shareit.booking.dto.NextBookingDto;
+import ru.practicum.shareit.booking.enums.BookingPhase;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.phase.BookingInstantView;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingListRepository {
 
+    /**
+     * Все бронирования вещей владельца курсором: драйвер получает строки порциями по fetch size.
+     * Поток нужно читать внутри транзакции и закрывать.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
     @Query("select b " +
-            "from Booking b " +
-            "where b.booker.id = :bookerId " +
-            "ORDER by b.start DESC")
-    Page<Booking> findAllByBookerIdOrderByStartDateDesc(long bookerId, Pageable pageable);
+            "from Booking as b " +
+            "join fetch b.item as i " +
+            "join fetch b.booker " +
+            "where i.user.id = :ownerId " +
+            "order by b.start desc, b.id desc")
+    Stream<Booking> streamAllByOwnerId(long ownerId);
 
-    @Query("select b " +
+    @Query("select new ru.practicum.shareit.booking.dto.LastBookingDto(b.id, b.booker.id) " +
             "from Booking b " +
-            "where b.booker.id = :bookerId " +
-            "and b.end < CURRENT_TIMESTAMP " +
+            "where b.item.id = :itemId " +
+            "and b.start < CURRENT_TIMESTAMP " +
             "ORDER by b.start DESC")
-    Page<Booking> findAllByBookerIdAndEndDateBefore(long bookerId, Pageable pageable);
+    List<LastBookingDto> findLastBooking(long itemId, Pageable pageable);
 
-    @Query("select b " +
+    @Query("select new ru.practicum.shareit.booking.dto.NextBookingDto(b.id, b.booker.id) " +
             "from Booking b " +
-            "where b.booker.id = :bookerId " +
+            "where b.item.id = :itemId " +
             "and b.start > CURRENT_TIMESTAMP " +
-            "ORDER by b.start DESC")
-    Page<Booking> findAllByBookerIdAndStartDateAfter(long bookerId, Pageable pageable);
+            "and b.status = 'APPROVED' " +
+            "ORDER by b.start asc")
+    List<NextBookingDto> findNextBooking(long itemId, Pageable pageable);
 
-    @Query("select b " +
+    @Query("select case when count(b) > 0 then true else false end " +
             "from Booking b " +
-            "where b.booker.id = :bookerId " +
-            "AND b.start <= CURRENT_TIMESTAMP " +
-            "AND b.end >= CURRENT_TIMESTAMP " +
-            "ORDER by b.start DESC")
-    Page<Booking> findAllByBookerIdAndDateBeforeAndDateAfter(long bookerId, Pageable pageable);
+            "where b.item.id = :itemId " +
+            "and b.status in ('WAITING', 'APPROVED') " +
+            "and b.start < :end " +
+            "and b.end > :start")
+    boolean existsOverlapping(long itemId, LocalDateTime start, LocalDateTime end);
 
-    @Query("select b " +
+    @Query("select new ru.practicum.shareit.booking.dto.BookingIntervalDto(b.id, b.start, b.end) " +
             "from Booking b " +
-            "where b.booker.id = :bookerId " +
-            "and b.status = :status " +
-            "ORDER by b.start DESC")
-    Page<Booking> findAllByBookerIdAndStatusOrderByStartDateDesc(long bookerId, BookingStatus status, Pageable pageable);
-
-
-    @Query("select b " +
-            "from Booking as b " +
-            "join b.item as i " +
-            "where i.user.id = :ownerId " +
-            "order by b.start desc")
-    Page<Booking> findAllByOwnerIdOrderByStartDateDesc(long ownerId, Pageable pageable);
-
-    @Query("select b " +
-            "from Booking as b " +
-            "join b.item as i " +
-            "where i.user.id = :ownerId " +
-            "and b.end < CURRENT_TIMESTAMP " +
-            "order by b.start desc")
-    Page<Booking> findAllByOwnerIdAndEndDateBefore(long ownerId, Pageable pageable);
-
-    @Query("select b " +
-            "from Booking as b " +
-            "join b.item as i " +
-            "where i.user.id = :ownerId " +
-            "and b.start > CURRENT_TIMESTAMP " +
-            "order by b.start desc")
-    Page<Booking> findAllByOwnerIdAndStartDateAfter(long ownerId, Pageable pageable);
-
-    @Query("select b " +
-            "from Booking as b " +
-            "join b.item as i " +
-            "where i.user.id = :ownerId " +
-            "AND b.start <= CURRENT_TIMESTAMP " +
-            "AND b.end >= CURRENT_TIMESTAMP " +
-            "order by b.start desc")
-    Page<Booking> findAllByOwnerIdAndDateBeforeAndDateAfter(long ownerId, Pageable pageable);
+            "where b.item.id = :itemId " +
+            "and b.status in ('WAITING', 'APPROVED') " +
+            "ORDER by b.start asc")
+    List<BookingIntervalDto> findActiveIntervalsByItemId(long itemId);
 
-    @Query("select b " +
-            "from Booking as b " +
-            "join b.item as i " +
-            "where i.user.id = :ownerId " +
-            "and b.status = :status " +
-            "order by b.start desc")
-    Page<Booking> findAllByOwnerIdAndStatusOrderByStartDateDesc(long ownerId, BookingStatus status, Pageable pageable);
+    /**
+     * Завершалась ли аренда вещи пользователем раньше {@code end}. Ответ дает индекс
+     * IX_BOOKING_ITEM_BOOKER_END без чтения строк таблицы.
+     */
+    boolean existsByItemIdAndBookerIdAndEndBefore(long itemId, long bookerId, LocalDateTime end);
 
-    @Query("select b " +
+    @Query("select distinct b.item.id " +
             "from Booking b " +
-            "where b.item.id = :itemId " +
-            "and b.start < CURRENT_TIMESTAMP " +
-            "ORDER by b.start DESC")
-    List<Booking> findFirstByItemIdAndEndDateBefore(long itemId);
-
-    @Query("select b " +
+            "where b.booker.id = :bookerId")
+    List<Long> findItemIdsByBookerId(long bookerId);
+
+    /**
+     * Переводит бронирования из фаз {@code from} в {@code phase}. Бронирование, которое уже сдвинули
+     * раньше, не трогается, поэтому повторный перевод безопасен.
+     */
+    @Modifying
+    @Query("update Booking b " +
+            "set b.phase = :phase " +
+            "where b.id in :ids " +
+            "and b.phase in :from")
+    int updatePhase(Collection<Long> ids, BookingPhase phase, Collection<BookingPhase> from);
+
+    @Modifying
+    @Query("update Booking b " +
+            "set b.phase = 'FINISHED' " +
+            "where b.phase in ('UPCOMING', 'ACTIVE') " +
+            "and b.end < :now")
+    int finishEnded(LocalDateTime now);
+
+    @Modifying
+    @Query("update Booking b " +
+            "set b.phase = 'ACTIVE' " +
+            "where b.phase = 'UPCOMING' " +
+            "and b.start <= :now")
+    int activateStarted(LocalDateTime now);
+
+    @Query("select b.id as id, b.start as instant " +
             "from Booking b " +
-            "where b.item.id = :itemId " +
-            "and b.start > CURRENT_TIMESTAMP " +
-            "and b.status = 'APPROVED' " +
-            "ORDER by b.start asc")
-    List<Booking> findFirstByItemIdAndStartDateAfter(long itemId);
+            "where b.phase = 'UPCOMING' " +
+            "and b.start > :from " +
+            "and b.start <= :until")
+    List<BookingInstantView> findStartsBetween(LocalDateTime from, LocalDateTime until);
 
-    List<Booking> findAllByItemIdAndBookerId(long itemId, long bookerI);
+    @Query("select b.id as id, b.end as instant " +
+            "from Booking b " +
+            "where b.phase in ('UPCOMING', 'ACTIVE') " +
+            "and b.end >= :from " +
+            "and b.end < :until")
+    List<BookingInstantView> findEndsBetween(LocalDateTime from, LocalDateTime until);
 }
 
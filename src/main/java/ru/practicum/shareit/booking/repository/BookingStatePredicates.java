@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking.repository;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.DateTimePath;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.core.types.dsl.PathBuilder;
+import ru.practicum.shareit.booking.enums.BookingPhase;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Условия выборок бронирований для каждой пары роль/состояние, собранные один раз при загрузке класса.
+ * Пользователь и ключ курсора подставляются параметрами, поэтому JPQL каждой пары не меняется от вызова
+ * к вызову и план запроса Hibernate берется из кэша.
+ */
+final class BookingStatePredicates {
+
+    static final PathBuilder<Booking> BOOKING = new PathBuilder<>(Booking.class, "b");
+    static final PathBuilder<Item> ITEM = new PathBuilder<>(Item.class, "i");
+    static final PathBuilder<User> USER = new PathBuilder<>(User.class, "u");
+
+    static final Param<Long> USER_ID = new Param<>(Long.class, "userId");
+    static final Param<LocalDateTime> AFTER_START = new Param<>(LocalDateTime.class, "afterStart");
+    static final Param<Long> AFTER_ID = new Param<>(Long.class, "afterId");
+
+    private static final DateTimePath<LocalDateTime> START = BOOKING.getDateTime("start", LocalDateTime.class);
+    private static final NumberPath<Long> ID = BOOKING.getNumber("id", Long.class);
+
+    static final OrderSpecifier<?>[] ORDER = {START.desc(), ID.desc()};
+    /**
+     * Строго после ключа курсора (start, id) в порядке {@link #ORDER}.
+     */
+    static final Predicate AFTER = START.lt(AFTER_START).or(START.eq(AFTER_START).and(ID.lt(AFTER_ID)));
+
+    /**
+     * Условие на бронирование по состоянию; у ALL условия нет.
+     */
+    private static final Map<BookingState, Predicate> STATES = new EnumMap<>(BookingState.class);
+
+    static {
+        STATES.put(BookingState.ALL, null);
+        STATES.put(BookingState.CURRENT, phaseIs(BookingPhase.ACTIVE));
+        STATES.put(BookingState.PAST, phaseIs(BookingPhase.FINISHED));
+        STATES.put(BookingState.FUTURE, phaseIs(BookingPhase.UPCOMING));
+        STATES.put(BookingState.WAITING, statusIs(BookingStatus.WAITING));
+        STATES.put(BookingState.APPROVED, statusIs(BookingStatus.APPROVED));
+        STATES.put(BookingState.REJECTED, statusIs(BookingStatus.REJECTED));
+        for (BookingState state : BookingState.values()) {
+            if (!STATES.containsKey(state)) {
+                throw new IllegalStateException(String.format("Нет условия для состояния %s", state));
+            }
+        }
+    }
+
+    /**
+     * Пользователь в роли; владелец вещи берется через присоединенную вещь {@link #ITEM}.
+     */
+    private static final Map<BookingRole, Predicate> ROLES = new EnumMap<>(Map.of(
+            BookingRole.BOOKER, BOOKING.get("booker", User.class).getNumber("id", Long.class).eq(USER_ID),
+            BookingRole.OWNER, ITEM.get("user", User.class).getNumber("id", Long.class).eq(USER_ID)));
+
+    /**
+     * Условие соединения бронирований со строкой пользователя {@link #USER} в запросе счета;
+     * для владельца между ними стоит соединение вещей по {@link #ITEM_OF_USER}.
+     */
+    private static final Map<BookingRole, Predicate> COUNT_JOINS = new EnumMap<>(Map.of(
+            BookingRole.BOOKER, BOOKING.get("booker", User.class).eq(USER),
+            BookingRole.OWNER, BOOKING.get("item", Item.class).eq(ITEM)));
+
+    static final Predicate ITEM_OF_USER = ITEM.get("user", User.class).eq(USER);
+
+    private static final Map<BookingRole, Map<BookingState, Predicate>> LISTS = table(ROLES);
+    private static final Map<BookingRole, Map<BookingState, Predicate>> COUNTS = table(COUNT_JOINS);
+
+    private BookingStatePredicates() {
+    }
+
+    /**
+     * Условие выборки бронирований пользователя {@link #USER_ID} в роли {@code role}.
+     */
+    static Predicate list(BookingRole role, BookingState state) {
+        return LISTS.get(role).get(state);
+    }
+
+    /**
+     * Условие левого соединения бронирований в запросе счета: фильтр стоит в ON, чтобы пользователь
+     * без подходящих бронирований давал ноль, а не пустой результат.
+     */
+    static Predicate count(BookingRole role, BookingState state) {
+        return COUNTS.get(role).get(state);
+    }
+
+    private static Map<BookingRole, Map<BookingState, Predicate>> table(Map<BookingRole, Predicate> roles) {
+        Map<BookingRole, Map<BookingState, Predicate>> table = new EnumMap<>(BookingRole.class);
+        for (BookingRole role : BookingRole.values()) {
+            Map<BookingState, Predicate> states = new EnumMap<>(BookingState.class);
+            for (BookingState state : BookingState.values()) {
+                states.put(state, ExpressionUtils.and(roles.get(role), STATES.get(state)));
+            }
+            table.put(role, states);
+        }
+        return table;
+    }
+
+    private static Predicate phaseIs(BookingPhase phase) {
+        return BOOKING.getEnum("phase", BookingPhase.class).eq(phase);
+    }
+
+    private static Predicate statusIs(BookingStatus status) {
+        return BOOKING.getEnum("status", BookingStatus.class).eq(status);
+    }
+}
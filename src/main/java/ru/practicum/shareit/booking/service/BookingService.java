@@ -1,8 +1,10 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.pagination.CursorPage;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
@@ -15,4 +17,18 @@ public interface BookingService {
     List<BookingDto> getUserAllBooking(long userId, String state, int from, int size);
 
     List<BookingDto> getAllBookingByOwner(long userId, String state, int from, int size);
+
+    CursorPage<BookingDto> getUserBookingsAfter(long userId, String state, String cursor, int size);
+
+    CursorPage<BookingDto> getOwnerBookingsAfter(long userId, String state, String cursor, int size);
+
+    void checkUserExists(long userId);
+
+    /**
+     * Передает получателю все бронирования вещей владельца, от новых к старым, не накапливая их в памяти.
+     * Наличие владельца не проверяется: перед потоковой выгрузкой вызывается {@link #checkUserExists}.
+     *
+     * @return число выгруженных бронирований
+     */
+    int exportOwnerBookings(long userId, Consumer<BookingDto> consumer);
 }
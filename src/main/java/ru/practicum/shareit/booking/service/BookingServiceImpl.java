@@ -2,27 +2,42 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityCache;
 import ru.practicum.shareit.booking.dto.BookingDto;
-import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.exception.BookingException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
 import ru.practicum.shareit.booking.mappers.BookingMapper;
+import ru.practicum.shareit.booking.overlap.BookingOverlapGuard;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.phase.BookingPhaseService;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorException;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.SeekCursor;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.booking.enums.BookingStatus.APPROVED;
 import static ru.practicum.shareit.booking.enums.BookingStatus.REJECTED;
@@ -34,11 +49,22 @@ import static ru.practicum.shareit.booking.enums.BookingStatus.WAITING;
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final String PERIOD_CONSTRAINT = "ex_booking_item_period";
+
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceValidator userExistenceValidator;
     private final ItemService itemService;
+    private final ItemAvailabilityCache availabilityCache;
+    private final ItemBookingSummaryService bookingSummaryService;
+    private final BookingPhaseService bookingPhaseService;
+    private final BookingOverlapGuard overlapGuard;
 
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     @Transactional
@@ -53,10 +79,21 @@ public class BookingServiceImpl implements BookingService {
                     String.format("Пользователь %s не может забронировать свою вещь %s", user, item.getId()));
         }
         endDateValidate(bookingDto);
-        Booking booking = bookingRepository.save(BookingMapper.INSTANCE.toBooking(bookingDto));
+        overlapGuard.beforeOverlapCheck(item.getId());
+        if (bookingRepository.existsOverlapping(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new BookingOverlapException(
+                    String.format("Вещь с id %d уже забронирована на период с %s по %s",
+                            item.getId(), bookingDto.getStart(), bookingDto.getEnd()));
+        }
+        Booking booking = BookingMapper.INSTANCE.toBooking(bookingDto);
         booking.setItem(item);
         booking.setBooker(user);
         booking.setStatus(WAITING);
+        booking = saveAndFlushNew(booking);
+        availabilityCache.onBooked(item.getId(), booking.getId(), booking.getStart(), booking.getEnd());
+        // блокировка вещи здесь упорядочивает только запись сводки: бронь уже прошла ограничение
+        bookingSummaryService.refreshAll(List.of(item.getId()));
+        bookingPhaseService.schedule(booking);
 
         log.info("Пользователь '{}' создал запрос на бронь вещи - '{}'", user, item);
         return BookingMapper.INSTANCE.toBookingReplyDto(booking);
@@ -67,13 +104,21 @@ public class BookingServiceImpl implements BookingService {
     public BookingDto approvingBooking(long userId, long bookingId, boolean approved) {
         Booking booking = ifBookingExistBooking(bookingId);
         Item item = itemService.ifItemExistReturnItem(booking.getItem().getId());
-        ifUserExistReturnUser(userId);
+        userExistenceValidator.validate(userId);
         if (userId != item.getUser().getId()) {
             throw new BookingNotFoundException(
                     String.format("Вещь id = %s не принадлежит user с id = %d", booking.getItem().getId(), userId));
         }
         if (booking.getStatus().equals(WAITING)) {
             booking.setStatus(approved ? APPROVED : REJECTED);
+            if (!approved) {
+                availabilityCache.onReleased(item.getId(), bookingId);
+            } else {
+                // сводку меняет только подтверждение: последнее бронирование берется в любом статусе,
+                // следующее - только APPROVED
+                itemRepository.lockById(item.getId());
+                bookingSummaryService.refresh(item.getId());
+            }
         } else {
             throw new BookingException("Статус брони не WAITING");
         }
@@ -85,7 +130,7 @@ public class BookingServiceImpl implements BookingService {
     public BookingDto getBooking(long userId, long bookingId) {
         Booking booking = ifBookingExistBooking(bookingId);
         Item item = itemRepository.findById(booking.getItem().getId()).get();
-        ifUserExistReturnUser(userId);
+        userExistenceValidator.validate(userId);
         if (userId != item.getUser().getId() && userId != booking.getBooker().getId()) {
             throw new BookingNotFoundException("У вас нет доступа к этой брони");
         }
@@ -95,14 +140,12 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDto> getUserAllBooking(long userId, String state, int from, int size) {
-        ifUserExistReturnUser(userId);
-        BookingStatus status;
-        try {
-            status = BookingStatus.valueOf(state);
-        } catch (IllegalArgumentException e) {
-            throw new BookingException(String.format("Unknown state: %s", state));
+        BookingState bookingState = BookingState.parse(state).orElse(null);
+        if (bookingState == null) {
+            userExistenceValidator.validate(userId);
+            throw unknownState(state);
         }
-        List<Booking> bookings = getElementsFromPage(userId, status, from, size).getContent();
+        List<Booking> bookings = getElementsFromPage(userId, bookingState, from, size);
 
         log.info("Получен список бронирований с параметром '{}' пользователя с id '{}'", state, userId);
         return bookings.stream()
@@ -112,16 +155,11 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDto> getAllBookingByOwner(long userId, String state, int from, int size) {
-        ifUserExistReturnUser(userId);
-        BookingStatus status;
-        try {
-            status = BookingStatus.valueOf(state);
-        } catch (IllegalArgumentException e) {
-            throw new BookingException(String.format("Unknown state: %s", state));
-        }
-        Pageable pageable = PageRequest.of(from / size, size);
+        userExistenceValidator.validate(userId);
+        BookingState bookingState = BookingState.parse(state).orElseThrow(() -> unknownState(state));
 
-        List<Booking> bookings = getBookingListForOwnerByState(userId, status, pageable).getContent();
+        List<Booking> bookings = bookingRepository.findBookingsPage(BookingRole.OWNER, userId, bookingState,
+                (long) (from / size) * size, size);
         log.debug("Получен список бронирований вещей пользователя с id '{}' со статусом '{}' ", userId, state);
         return bookings.stream()
                 .map(BookingMapper.INSTANCE::toBookingReplyDto)
@@ -129,40 +167,100 @@ public class BookingServiceImpl implements BookingService {
 
     }
 
-    private Page<Booking> getBookingListByState(long userId, BookingStatus state, Pageable pageable) {
-        switch (state) {
-            case ALL:
-                return bookingRepository.findAllByBookerIdOrderByStartDateDesc(userId, pageable);
-            case PAST:
-                return bookingRepository.findAllByBookerIdAndEndDateBefore(userId, pageable);
-            case FUTURE:
-                return bookingRepository.findAllByBookerIdAndStartDateAfter(userId, pageable);
-            case CURRENT:
-                return bookingRepository.findAllByBookerIdAndDateBeforeAndDateAfter(userId, pageable);
-            case WAITING:
-            case REJECTED:
-                return bookingRepository.findAllByBookerIdAndStatusOrderByStartDateDesc(userId, state, pageable);
-            default:
-                throw new BookingException(String.format("Unknown state: %s", state));
+    @Override
+    public CursorPage<BookingDto> getUserBookingsAfter(long userId, String state, String cursor, int size) {
+        userExistenceValidator.validate(userId);
+        CursorPage<BookingDto> page = getBookingsAfter(BookingRole.BOOKER, userId, state, cursor, size);
+        log.info("Получена страница бронирований с параметром '{}' пользователя с id '{}'", state, userId);
+        return page;
+    }
+
+    @Override
+    public CursorPage<BookingDto> getOwnerBookingsAfter(long userId, String state, String cursor, int size) {
+        userExistenceValidator.validate(userId);
+        CursorPage<BookingDto> page = getBookingsAfter(BookingRole.OWNER, userId, state, cursor, size);
+        log.debug("Получена страница бронирований вещей пользователя с id '{}' со статусом '{}' ", userId, state);
+        return page;
+    }
+
+    @Override
+    public void checkUserExists(long userId) {
+        userExistenceValidator.validate(userId);
+    }
+
+    @Override
+    public int exportOwnerBookings(long userId, Consumer<BookingDto> consumer) {
+        int count = 0;
+        try (Stream<Booking> bookings = bookingRepository.streamAllByOwnerId(userId)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(BookingMapper.INSTANCE.toBookingReplyDto(iterator.next()));
+                // прочитанные бронирования, вещи и пользователи иначе копятся в контексте до конца выгрузки
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        log.debug("Выгружено {} бронирований вещей пользователя с id '{}'", count, userId);
+        return count;
+    }
+
+    private CursorPage<BookingDto> getBookingsAfter(BookingRole role, long userId, String state,
+                                                    String cursor, int size) {
+        BookingState bookingState = BookingState.parse(state).orElseThrow(() -> unknownState(state));
+        SeekCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = SeekCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new CursorException(String.format("Некорректный курсор: %s", cursor));
+            }
+        }
+        // одна лишняя строка показывает, есть ли следующая страница, без запроса count
+        List<Booking> bookings = bookingRepository.findBookingsAfter(role, userId, bookingState, after, size + 1);
+        String nextCursor = null;
+        if (bookings.size() > size) {
+            bookings = bookings.subList(0, size);
+            Booking last = bookings.get(size - 1);
+            nextCursor = SeekCursor.of(last.getStart(), last.getId()).encode();
+        }
+        List<BookingDto> content = bookings.stream()
+                .map(BookingMapper.INSTANCE::toBookingReplyDto)
+                .collect(Collectors.toList());
+        return new CursorPage<>(content, nextCursor);
+    }
+
+    /**
+     * На PostgreSQL пересечение ожидающих и подтвержденных броней вещи запрещает ограничение
+     * EX_BOOKING_ITEM_PERIOD из schema-postgresql.sql. Вставка сбрасывается сразу, чтобы его нарушение
+     * стало ответом 409, а не ошибкой на коммите; остальные нарушения целостности пробрасываются как есть.
+     */
+    private Booking saveAndFlushNew(Booking booking) {
+        try {
+            return bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (!isPeriodExclusionViolation(e)) {
+                throw e;
+            }
+            throw new BookingOverlapException(
+                    String.format("Вещь с id %d уже забронирована на период с %s по %s",
+                            booking.getItem().getId(), booking.getStart(), booking.getEnd()));
         }
     }
 
-    private Page<Booking> getBookingListForOwnerByState(long userId, BookingStatus state, Pageable pageable) {
-        switch (state) {
-            case ALL:
-                return bookingRepository.findAllByOwnerIdOrderByStartDateDesc(userId, pageable);
-            case PAST:
-                return bookingRepository.findAllByOwnerIdAndEndDateBefore(userId, pageable);
-            case FUTURE:
-                return bookingRepository.findAllByOwnerIdAndStartDateAfter(userId, pageable);
-            case CURRENT:
-                return bookingRepository.findAllByOwnerIdAndDateBeforeAndDateAfter(userId, pageable);
-            case WAITING:
-            case REJECTED:
-                return bookingRepository.findAllByOwnerIdAndStatusOrderByStartDateDesc(userId, state, pageable);
-            default:
-                throw new BookingException(String.format("Unknown state: %s", state));
+    private static boolean isPeriodExclusionViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException
+                    && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())
+                    && String.valueOf(cause.getMessage()).toLowerCase(Locale.ROOT).contains(PERIOD_CONSTRAINT)) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    private static BookingException unknownState(String state) {
+        return new BookingException(String.format("Unknown state: %s", state));
     }
 
     private Booking ifBookingExistBooking(long bookingId) {
@@ -183,18 +281,20 @@ public class BookingServiceImpl implements BookingService {
                 String.format("Пользователя с id %d нет в базе", userId)));
     }
 
-    private Page<Booking> getElementsFromPage(long userId, BookingStatus state, int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
-
-        Page<Booking> bookingPage = getBookingListByState(userId, state, pageable);
-        while (bookingPage.isEmpty()) {
-            if (bookingPage.getPageable().hasPrevious()) {
-                bookingPage = getBookingListByState(userId, state, bookingPage.getPageable().previousOrFirst());
-            } else {
-                throw new BookingException("Бронирований нет");
-            }
+    /**
+     * Страница {@code from / size}, а если она за концом списка - последняя непустая страница.
+     * Наличие пользователя проверяет сам подсчет: он идет левым соединением от строки пользователя,
+     * поэтому отдельного запроса нет и вызов всегда обходится двумя запросами.
+     */
+    private List<Booking> getElementsFromPage(long userId, BookingState state, int from, int size) {
+        long total = bookingRepository.countBookings(BookingRole.BOOKER, userId, state)
+                .orElseThrow(() -> new UserNotFoundException(
+                        String.format("Пользователя с id %d нет в базе", userId)));
+        if (total == 0) {
+            throw new BookingException("Бронирований нет");
         }
-        return bookingPage;
+        long page = Math.min(from / size, (total - 1) / size);
+        return bookingRepository.findBookingsPage(BookingRole.BOOKER, userId, state, page * size, size);
     }
 
 
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Последнее и следующее бронирования вещи, вычисленные на момент записи.
+ * Сводка верна до {@code rollAt} - начала ближайшего бронирования вещи в любом статусе:
+ * тогда следующее бронирование может стать последним, и сводку нужно пересчитать.
+ */
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "item_booking_summary", schema = "public")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBookingSummary {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+
+    @Column(name = "last_booker_id")
+    private Long lastBookerId;
+
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+
+    @Column(name = "next_booker_id")
+    private Long nextBookerId;
+
+    @Column(name = "roll_at")
+    private LocalDateTime rollAt;
+
+    public static ItemBookingSummary of(ItemBookingSummaryView view) {
+        return new ItemBookingSummary(view.getItemId(), view.getLastBookingId(), view.getLastBookerId(),
+                view.getNextBookingId(), view.getNextBookerId(), view.getRollAt());
+    }
+
+    public boolean isStale(LocalDateTime now) {
+        return rollAt != null && !rollAt.isAfter(now);
+    }
+
+    /**
+     * Переносит вычисленные значения в сводку.
+     *
+     * @return false, если сводка уже совпадала с ними
+     */
+    public boolean update(ItemBookingSummaryView view) {
+        if (Objects.equals(lastBookingId, view.getLastBookingId())
+                && Objects.equals(lastBookerId, view.getLastBookerId())
+                && Objects.equals(nextBookingId, view.getNextBookingId())
+                && Objects.equals(nextBookerId, view.getNextBookerId())
+                && Objects.equals(rollAt, view.getRollAt())) {
+            return false;
+        }
+        lastBookingId = view.getLastBookingId();
+        lastBookerId = view.getLastBookerId();
+        nextBookingId = view.getNextBookingId();
+        nextBookerId = view.getNextBookerId();
+        rollAt = view.getRollAt();
+        return true;
+    }
+}
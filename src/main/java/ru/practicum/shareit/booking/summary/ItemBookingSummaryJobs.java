@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодический пересчет сводок бронирований: перенос следующего бронирования в последнее,
+ * когда оно начинается, и сверка всех сводок с бронированиями.
+ * Выключается свойством {@code shareit.booking-summary.jobs.enabled=false}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking-summary.jobs.enabled", havingValue = "true", matchIfMissing = true)
+public class ItemBookingSummaryJobs {
+
+    private final ItemBookingSummaryService summaryService;
+    private final int batchSize;
+
+    public ItemBookingSummaryJobs(ItemBookingSummaryService summaryService,
+                                  @Value("${shareit.booking-summary.batch-size:500}") int batchSize) {
+        this.summaryService = summaryService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.roll-interval-ms:60000}",
+            initialDelayString = "${shareit.booking-summary.roll-interval-ms:60000}")
+    public void rollForward() {
+        summaryService.rollForward(batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.reconcile-interval-ms:3600000}",
+            initialDelayString = "${shareit.booking-summary.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        int drifted = summaryService.reconcile(batchSize);
+        if (drifted > 0) {
+            log.warn("Сверка нашла {} сводок бронирований, разошедшихся с бронированиями", drifted);
+        }
+    }
+}
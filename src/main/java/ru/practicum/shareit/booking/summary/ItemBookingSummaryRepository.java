@@ -0,0 +1,40 @@
+package ru.practicum.shareit.booking.summary;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    /**
+     * Сводки вещей, вычисленные по бронированиям на момент {@code now}: последнее бронирование в любом
+     * статусе и следующее подтвержденное. Каждый подзапрос читает одну ветку индекса по (item_id, start_date).
+     */
+    @Query(value = "SELECT s.item_id AS \"itemId\", " +
+            "l.id AS \"lastBookingId\", l.booker_id AS \"lastBookerId\", " +
+            "n.id AS \"nextBookingId\", n.booker_id AS \"nextBookerId\", " +
+            "s.roll_at AS \"rollAt\" " +
+            "FROM (SELECT i.id AS item_id, " +
+            "(SELECT b.id FROM booking b WHERE b.item_id = i.id AND b.start_date < :now " +
+            "ORDER BY b.start_date DESC LIMIT 1) AS last_id, " +
+            "(SELECT b.id FROM booking b WHERE b.item_id = i.id AND b.start_date > :now " +
+            "AND b.status = 'APPROVED' ORDER BY b.start_date ASC LIMIT 1) AS next_id, " +
+            "(SELECT MIN(b.start_date) FROM booking b WHERE b.item_id = i.id AND b.start_date >= :now) AS roll_at " +
+            "FROM items i " +
+            "WHERE i.id IN (:itemIds)) AS s " +
+            "LEFT JOIN booking l ON l.id = s.last_id " +
+            "LEFT JOIN booking n ON n.id = s.next_id", nativeQuery = true)
+    List<ItemBookingSummaryView> computeByItemIdIn(Collection<Long> itemIds, LocalDateTime now);
+
+    @Query("select s.itemId " +
+            "from ItemBookingSummary s " +
+            "where s.rollAt <= :now " +
+            "order by s.rollAt asc")
+    List<Long> findItemIdsToRoll(LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.booking.summary;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ItemBookingSummaryService {
+
+    /**
+     * Пересчитывает сводку вещи в текущей транзакции. Вызывающий держит блокировку строки вещи,
+     * иначе параллельная запись бронирования может перезаписать сводку устаревшим значением.
+     */
+    void refresh(long itemId);
+
+    /**
+     * Пересчитывает сводки вещей в текущей транзакции, блокируя строки вещей в порядке id.
+     * Нужен после удаления бронирований в обход сервиса, например каскадом вместе с арендатором.
+     */
+    void refreshAll(Collection<Long> itemIds);
+
+    /**
+     * Заменяет отсутствующие и устаревшие сводки вычисленными по бронированиям; в базу ничего не пишет.
+     *
+     * @param summaries сводки по id вещей, значение null - сводки нет
+     */
+    void ensureCurrent(Map<Long, ItemBookingSummary> summaries);
+
+    /**
+     * Пересчитывает сводки, у которых наступило {@code rollAt}, пачками по {@code batchSize} вещей,
+     * каждая пачка в своей транзакции.
+     *
+     * @return число пересчитанных сводок
+     */
+    int rollForward(int batchSize);
+
+    /**
+     * Сверяет сводки всех вещей с бронированиями и исправляет расхождения, создавая недостающие сводки.
+     *
+     * @return число актуальных сводок, разошедшихся с бронированиями
+     */
+    int reconcile(int batchSize);
+}
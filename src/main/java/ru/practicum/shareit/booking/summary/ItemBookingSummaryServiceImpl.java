@@ -0,0 +1,173 @@
+package ru.practicum.shareit.booking.summary;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Сводки пишутся в транзакции, изменившей бронирования вещи, и пересчитываются задачами
+ * {@link ItemBookingSummaryJobs}. Бронирования арендатора удаляет каскад вместе с ним, поэтому удаление
+ * пользователя пересчитывает сводки вещей, которые он бронировал; сводку удаленной вещи удаляет каскад.
+ * Строки, записанные в обход сервиса, сводку не обновляют: такие расхождения находит сверка.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class ItemBookingSummaryServiceImpl implements ItemBookingSummaryService {
+
+    static final String DRIFT_COUNTER = "shareit.booking.summary.drift";
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ItemBookingSummaryServiceImpl(ItemBookingSummaryRepository summaryRepository,
+                                         ItemRepository itemRepository,
+                                         TransactionTemplate transactionTemplate,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        this.summaryRepository = summaryRepository;
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    @Override
+    @Transactional
+    public void refresh(long itemId) {
+        recompute(List.of(itemId), LocalDateTime.now());
+        log.debug("Обновлена сводка бронирований вещи с id '{}'", itemId);
+    }
+
+    @Override
+    @Transactional
+    public void refreshAll(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        itemRepository.lockAllById(itemIds);
+        recompute(itemIds, LocalDateTime.now());
+        log.debug("Обновлены сводки бронирований {} вещей", itemIds.size());
+    }
+
+    @Override
+    public void ensureCurrent(Map<Long, ItemBookingSummary> summaries) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> outdated = summaries.entrySet().stream()
+                .filter(entry -> entry.getValue() == null || entry.getValue().isStale(now))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (outdated.isEmpty()) {
+            return;
+        }
+        for (ItemBookingSummaryView view : summaryRepository.computeByItemIdIn(outdated, now)) {
+            summaries.put(view.getItemId(), ItemBookingSummary.of(view));
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rollForward(int batchSize) {
+        int rolled = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<Long> itemIds = summaryRepository.findItemIdsToRoll(now, PageRequest.of(0, batchSize));
+                if (itemIds.isEmpty()) {
+                    return 0;
+                }
+                itemRepository.lockAllById(itemIds);
+                recompute(itemIds, now);
+                return itemIds.size();
+            });
+            rolled += batch;
+        } while (batch == batchSize);
+        log.debug("Пересчитано {} сводок бронирований по наступлению срока", rolled);
+        return rolled;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int reconcile(int batchSize) {
+        int checked = 0;
+        int drifted = 0;
+        List<Long> itemIds = itemRepository.findIdsAfter(0, PageRequest.of(0, batchSize));
+        while (!itemIds.isEmpty()) {
+            List<Long> batch = itemIds;
+            drifted += transactionTemplate.execute(status -> reconcileBatch(batch));
+            checked += batch.size();
+            itemIds = itemRepository.findIdsAfter(batch.get(batch.size() - 1), PageRequest.of(0, batchSize));
+        }
+        if (drifted > 0) {
+            Counter.builder(DRIFT_COUNTER)
+                    .description("Сводки бронирований, разошедшиеся с бронированиями")
+                    .register(meterRegistry)
+                    .increment(drifted);
+        }
+        log.info("Сверено {} сводок бронирований, расхождений: {}", checked, drifted);
+        return drifted;
+    }
+
+    /**
+     * Сводка с наступившим {@code rollAt} просто ждет пересчета и расхождением не считается,
+     * как и созданная заново: у вещи без бронирований сводки может не быть.
+     */
+    private int reconcileBatch(List<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        itemRepository.lockAllById(itemIds);
+        Map<Long, ItemBookingSummary> stored = findStored(itemIds);
+        int drifted = 0;
+        for (ItemBookingSummaryView view : summaryRepository.computeByItemIdIn(itemIds, now)) {
+            ItemBookingSummary summary = stored.get(view.getItemId());
+            if (summary == null || summary.isStale(now)) {
+                save(summary, view);
+            } else if (summary.update(view)) {
+                drifted++;
+                log.warn("Сводка бронирований вещи с id '{}' разошлась с бронированиями и исправлена",
+                        view.getItemId());
+            }
+        }
+        return drifted;
+    }
+
+    private void recompute(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> stored = findStored(itemIds);
+        for (ItemBookingSummaryView view : summaryRepository.computeByItemIdIn(itemIds, now)) {
+            save(stored.get(view.getItemId()), view);
+        }
+    }
+
+    private Map<Long, ItemBookingSummary> findStored(Collection<Long> itemIds) {
+        return summaryRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+    }
+
+    private void save(ItemBookingSummary summary, ItemBookingSummaryView view) {
+        if (summary == null) {
+            entityManager.persist(ItemBookingSummary.of(view));
+        } else {
+            summary.update(view);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.summary;
+
+import java.time.LocalDateTime;
+
+public interface ItemBookingSummaryView {
+
+    Long getItemId();
+
+    Long getLastBookingId();
+
+    Long getLastBookerId();
+
+    Long getNextBookingId();
+
+    Long getNextBookerId();
+
+    LocalDateTime getRollAt();
+}
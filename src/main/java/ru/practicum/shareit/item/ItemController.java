@@ -1,7 +1,11 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -12,23 +16,37 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.item.bulk.ItemBulkReader;
+import ru.practicum.shareit.item.bulk.ItemImportResultWriter;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.metrics.StatementBudget;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static ru.practicum.shareit.ServiceHeaders.X_NEXT_CURSOR;
 import static ru.practicum.shareit.ServiceHeaders.X_USER_ID;
 
 @Slf4j
 @RestController
+@Validated
 @RequestMapping("/items")
 @AllArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemDto addItem(@RequestHeader(value = X_USER_ID, required = true) int idOwner,
@@ -37,6 +55,21 @@ public class ItemController {
         return itemService.addItem(idOwner, itemDto);
     }
 
+    /**
+     * Принимает JSON-массив или NDJSON с вещами и отвечает NDJSON с результатом по каждой строке.
+     * Число SQL-запросов растет с размером тела, поэтому бюджет не ограничен.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @StatementBudget(Integer.MAX_VALUE)
+    public void addItems(@RequestHeader(value = X_USER_ID, required = true) long idOwner,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("Получен запрос на массовое добавление вещей владельцу с ID = {}", idOwner);
+        try (ItemBulkReader reader = new ItemBulkReader(objectMapper, request.getInputStream());
+             ItemImportResultWriter writer = new ItemImportResultWriter(objectMapper, response)) {
+            itemImportService.importItems(idOwner, reader, writer);
+        }
+    }
+
     @GetMapping("/{itemId}")
     public ItemDto getItem(@PathVariable long itemId, @RequestHeader(value = X_USER_ID, required = true) int idUser) {
         log.debug("Получен запрос на получение вещи с ID = {}", itemId);
@@ -51,6 +84,7 @@ public class ItemController {
     }
 
     @GetMapping
+    @StatementBudget(6)
     public List<ItemDto> getItems(@RequestHeader(value = X_USER_ID, required = true) int idUser,
                                   @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
                                   @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size) {
@@ -68,6 +102,32 @@ public class ItemController {
         return itemService.searchItem(userId, text, from, size);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(
+            @PathVariable long itemId,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.debug("Получен запрос на проверку доступности вещи с ID = {} с {} по {}", itemId, from, to);
+        return itemService.getAvailability(itemId, from, to);
+    }
+
+    /**
+     * Комментарии вещи страницами; курсор следующей страницы возвращается в заголовке X-Next-Cursor.
+     */
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(
+            @PathVariable long itemId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size) {
+        log.debug("Получен запрос на получение комментариев вещи с ID = {}", itemId);
+        CursorPage<CommentDto> page = itemService.getComments(itemId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(X_NEXT_CURSOR, page.getNextCursor());
+        }
+        return response.body(page.getContent());
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto postComment(
             @RequestHeader("X-Sharer-User-Id") long userId,
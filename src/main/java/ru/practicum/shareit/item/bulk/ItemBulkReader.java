@@ -0,0 +1,55 @@
+package ru.practicum.shareit.item.bulk;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Читает вещи из потока по одной, не загружая тело целиком. Понимает JSON-массив объектов
+ * и NDJSON (объекты, разделенные переводом строки): парсер Jackson сам читает последовательность
+ * корневых значений.
+ */
+public class ItemBulkReader implements Closeable {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private boolean started;
+    private boolean array;
+
+    public ItemBulkReader(ObjectMapper objectMapper, InputStream body) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(body);
+    }
+
+    /**
+     * @return следующая вещь или {@code null}, если поток закончился
+     */
+    public ItemDto next() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (!started) {
+            started = true;
+            if (token == JsonToken.START_ARRAY) {
+                array = true;
+                token = parser.nextToken();
+            }
+        }
+        if (token == null || (array && token == JsonToken.END_ARRAY)) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException(String.format("Ожидался объект вещи, получено %s в позиции %s", token,
+                    parser.getCurrentLocation()));
+        }
+        return objectMapper.readValue(parser, ItemDto.class);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Пишет результаты импорта в ответ построчно (NDJSON). Ответ открывается только при первой строке,
+ * поэтому ошибка до начала импорта (например, неизвестный владелец) еще уходит обычным JSON через ErrorHandler.
+ */
+public class ItemImportResultWriter implements Consumer<ItemImportResultDto>, Closeable {
+
+    private final ObjectMapper objectMapper;
+    private final HttpServletResponse response;
+    private Writer writer;
+
+    public ItemImportResultWriter(ObjectMapper objectMapper, HttpServletResponse response) {
+        this.objectMapper = objectMapper;
+        this.response = response;
+    }
+
+    @Override
+    public void accept(ItemImportResultDto result) {
+        try {
+            if (writer == null) {
+                response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+            }
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+public interface CommentItemView {
+
+    Long getId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+
+    Long getItemId();
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAvailabilityDto {
+
+    private Long itemId;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private Boolean available;
+
+}
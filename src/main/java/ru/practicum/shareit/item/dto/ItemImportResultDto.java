@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Результат импорта одной строки: порядковый номер в теле запроса и id созданной вещи либо причина отказа.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemImportResultDto {
+
+    private final int index;
+
+    private final Long id;
+
+    private final String error;
+
+    public static ItemImportResultDto created(int index, long id) {
+        return new ItemImportResultDto(index, id, null);
+    }
+
+    public static ItemImportResultDto rejected(int index, String error) {
+        return new ItemImportResultDto(index, null, error);
+    }
+}
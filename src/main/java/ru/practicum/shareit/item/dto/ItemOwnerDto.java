@@ -32,4 +32,6 @@ public class ItemOwnerDto extends ItemDto {
 
     private List<CommentDto> comments = new ArrayList<>();
 
+    private long commentCount;
+
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentItemView;
 import ru.practicum.shareit.item.model.Comment;
 
 @Mapper
@@ -15,4 +16,6 @@ public interface CommentMapper {
 
     @Mapping(target = "authorName", source = "comment.author.name")
     CommentDto toCommentDto(Comment comment);
+
+    CommentDto toCommentDto(CommentItemView comment);
 }
\ No newline at end of file
@@ -1,13 +1,50 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.CommentItemView;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findAllByItemId(long itemId);
-}
\ No newline at end of file
+    @Query("select c " +
+            "from Comment c " +
+            "join fetch c.author " +
+            "where c.item.id = :itemId " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findRecentByItemId(long itemId, Pageable pageable);
+
+    /**
+     * Комментарии вещи, упорядоченные по убыванию (created, id), строго после ключа {@code (created, id)}.
+     */
+    @Query("select c " +
+            "from Comment c " +
+            "join fetch c.author " +
+            "where c.item.id = :itemId " +
+            "and (c.created < :created or (c.created = :created and c.id < :id)) " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findByItemIdAfter(long itemId, LocalDateTime created, long id, Pageable pageable);
+
+    /**
+     * Не больше {@code limit} последних комментариев каждой вещи. Нумерация строк идет только по индексу
+     * IX_COMMENTS_ITEM_CREATED, строки комментариев читаются лишь для попавших в выборку.
+     */
+    @Query(value = "SELECT c.id AS \"id\", c.text AS \"text\", u.name AS \"authorName\", " +
+            "c.created AS \"created\", c.item_id AS \"itemId\" " +
+            "FROM (SELECT id, " +
+            "ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY created DESC, id DESC) AS rn " +
+            "FROM comments " +
+            "WHERE item_id IN (:itemIds)) AS r " +
+            "JOIN comments c ON c.id = r.id " +
+            "JOIN users u ON u.id = c.author_id " +
+            "WHERE r.rn <= :limit " +
+            "ORDER BY c.item_id, r.rn", nativeQuery = true)
+    List<CommentItemView> findRecentByItemIdIn(Collection<Long> itemIds, int limit);
+}
@@ -3,10 +3,12 @@ package ru.practicum.shareit.item.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,14 +16,76 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
 
     Page<Item> findAllByUserIdOrderByIdAsc(long userId, Pageable pageable);
 
-    @Query("SELECT i FROM Item i " +
-            "WHERE i.user.id = :userId " +
-            "AND LOWER(i.name) LIKE LOWER(CONCAT('%', :searchText, '%')) " +
-            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :searchText, '%')) " +
-            "AND i.available = true")
-    Page<Item> findByUserAndNameOrDescription(Long userId, String searchText, Pageable pageable);
+    /**
+     * Вещи владельца вместе со сводкой бронирований: в каждой строке {@code Item} и
+     * {@code ItemBookingSummary} или null, если сводки у вещи еще нет.
+     */
+    @Query(value = "select i, s " +
+            "from Item i " +
+            "left join ItemBookingSummary s on s.itemId = i.id " +
+            "where i.user.id = :userId " +
+            "order by i.id asc",
+            countQuery = "select count(i) from Item i where i.user.id = :userId")
+    Page<Object[]> findAllWithBookingSummaryByUserId(long userId, Pageable pageable);
 
+    @Query(value = "SELECT id FROM items WHERE id = :itemId FOR UPDATE", nativeQuery = true)
+    Long lockById(long itemId);
+
+    /**
+     * Блокирует строки вещей в порядке id, чтобы параллельные блокировки пачек не вели к взаимоблокировке.
+     */
+    @Query(value = "SELECT id FROM items WHERE id IN (:itemIds) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllById(Collection<Long> itemIds);
+
+    @Query("select i.id from Item i where i.id > :afterId order by i.id asc")
+    List<Long> findIdsAfter(long afterId, Pageable pageable);
+
+    /**
+     * Доступные вещи с подстрокой в названии, за ними вещи с подстрокой только в описании, внутри групп по id.
+     * Каждая группа берет не больше {@code offset + size} строк в порядке первичного ключа: общий ORDER BY по
+     * рангу заставил бы базу найти и отсортировать все совпадения, а для частого слова их сотни тысяч.
+     * Шаблон собран оператором {@code ||}, а не функцией CONCAT: его PostgreSQL вычисляет при планировании
+     * и оценивает по статистике, какой путь дешевле.
+     */
+    @Query(value = "SELECT * FROM (" +
+            "(SELECT i.*, 0 AS search_rank FROM items i " +
+            "WHERE i.available = true AND LOWER(i.name) LIKE '%' || LOWER(:searchText) || '%' " +
+            "ORDER BY i.id LIMIT :#{#pageable.offset + #pageable.pageSize}) " +
+            "UNION ALL " +
+            "(SELECT i.*, 1 AS search_rank FROM items i " +
+            "WHERE i.available = true AND LOWER(i.description) LIKE '%' || LOWER(:searchText) || '%' " +
+            "AND NOT LOWER(i.name) LIKE '%' || LOWER(:searchText) || '%' " +
+            "ORDER BY i.id LIMIT :#{#pageable.offset + #pageable.pageSize})" +
+            ") found ORDER BY search_rank, id",
+            nativeQuery = true)
+    List<Item> searchAvailableByNameOrDescription(String searchText, Pageable pageable);
+
+    /**
+     * Условие по внешнему ключу, а не по присоединенному запросу: производный метод строит левое соединение
+     * с requests и фильтрует по его id, и тогда индекс IX_ITEMS_REQUEST не используется.
+     */
+    @Query("select i from Item i where i.request.id = :requestId")
     List<Item> findAllByRequestId(long requestId);
 
+    /**
+     * Id вещей, которые каскад в базе удалит вместе с пользователем: его собственных и ответов на его запросы.
+     */
+    @Query("select i.id from Item i " +
+            "left join i.request r " +
+            "where i.user.id = :userId or r.requestor.id = :userId")
+    List<Long> findIdsDeletedWithUser(long userId);
+
+    /**
+     * Вычитает из счетчиков вещей комментарии автора. Комментарии удаляет каскад вместе с автором,
+     * поэтому счетчики уменьшаются до удаления пользователя, пока его комментарии еще видны.
+     */
+    @Modifying
+    @Query(value = "UPDATE items SET comment_count = comment_count - " +
+            "(SELECT COUNT(*) FROM comments c WHERE c.item_id = items.id AND c.author_id = :authorId) " +
+            "WHERE id IN (SELECT c.item_id FROM comments c WHERE c.author_id = :authorId)", nativeQuery = true)
+    int subtractCommentsOfAuthor(long authorId);
+
+    @Query("select i from Item i where i.request.id in :requestIds")
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
 
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mappers.ItemMapper;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "db", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DatabaseItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+
+    @Override
+    public List<ItemDto> search(String searchText, Pageable pageable) {
+        return itemRepository.searchAvailableByNameOrDescription(searchText, pageable)
+                .stream()
+                .map(itemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void index(ItemDto itemDto) {
+        // поиск идет по таблице items, отдельный индекс обновлять не нужно
+    }
+
+    @Override
+    public void unindex(Collection<Long> itemIds) {
+        // удаленных вещей нет в таблице items
+    }
+}
@@ -0,0 +1,228 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.TransactionHooks;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mappers.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Триграммный инвертированный индекс доступных вещей в памяти приложения.
+ * Строится при старте из {@link ItemRepository} и обновляется после коммита транзакций,
+ * которые создают, изменяют или удаляют вещи. Результаты совпадают с поиском в базе:
+ * сначала совпадения по названию, затем по описанию, внутри групп по возрастанию id.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, LongPostingList> postings = new HashMap<>();
+    private final Map<Long, IndexedItem> documents = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            Pageable pageable = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id"));
+            Page<Item> page;
+            do {
+                page = itemRepository.findAll(pageable);
+                page.forEach(item -> put(itemMapper.toItemDto(item)));
+                pageable = page.nextPageable();
+            } while (page.hasNext());
+            log.info("Поисковый индекс построен: {} вещей, {} триграмм", documents.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ItemDto> search(String searchText, Pageable pageable) {
+        String query = normalize(searchText);
+        int limit = (int) pageable.getOffset() + pageable.getPageSize();
+        List<IndexedItem> nameMatches = new ArrayList<>();
+        List<IndexedItem> descriptionMatches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (long id : candidates(query)) {
+                IndexedItem document = documents.get(id);
+                if (document.name.contains(query)) {
+                    nameMatches.add(document);
+                    if (nameMatches.size() >= limit) {
+                        break;
+                    }
+                } else if (document.description.contains(query)) {
+                    descriptionMatches.add(document);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        nameMatches.addAll(descriptionMatches);
+        return nameMatches.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(document -> copyOf(document.item))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void index(ItemDto itemDto) {
+        ItemDto item = copyOf(itemDto);
+        TransactionHooks.afterCommit(() -> apply(item));
+    }
+
+    @Override
+    public void unindex(Collection<Long> itemIds) {
+        List<Long> ids = List.copyOf(itemIds);
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                ids.forEach(this::remove);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void apply(ItemDto item) {
+        lock.writeLock().lock();
+        try {
+            remove(item.getId());
+            if (Boolean.TRUE.equals(item.getAvailable())) {
+                put(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(ItemDto item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        IndexedItem document = new IndexedItem(item);
+        documents.put(item.getId(), document);
+        for (String gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new LongPostingList()).add(item.getId());
+        }
+    }
+
+    private void remove(long id) {
+        IndexedItem document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String gram : document.grams()) {
+            LongPostingList list = postings.get(gram);
+            list.remove(id);
+            if (list.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private long[] candidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            List<LongPostingList> lists = postings.entrySet().stream()
+                    .filter(entry -> entry.getKey().contains(query))
+                    .map(Map.Entry::getValue)
+                    .collect(Collectors.toList());
+            return LongPostingList.union(lists);
+        }
+        List<LongPostingList> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            LongPostingList list = postings.get(gram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(LongPostingList::size));
+        long[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = LongPostingList.intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String text) {
+        if (text.length() < GRAM_LENGTH) {
+            return Collections.emptySet();
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static ItemDto copyOf(ItemDto item) {
+        return new ItemDto(item.getId(), item.getName(), item.getAvailable(), item.getDescription(),
+                item.getRequestId());
+    }
+
+    private static final class IndexedItem {
+
+        private final ItemDto item;
+        private final String name;
+        private final String description;
+
+        private IndexedItem(ItemDto item) {
+            this.item = item;
+            this.name = normalize(item.getName());
+            this.description = normalize(item.getDescription());
+        }
+
+        /**
+         * Триграммы поля, дополненного пробелами по краям, чтобы запросы короче трех символов
+         * находились через ключи, которые их содержат.
+         */
+        private Set<String> grams() {
+            Set<String> grams = new HashSet<>(InMemoryItemSearchEngine.grams(" " + name + " "));
+            grams.addAll(InMemoryItemSearchEngine.grams(" " + description + " "));
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по подстроке в названии или описании.
+ * Реализация выбирается свойством {@code shareit.search.engine}: {@code db} (по умолчанию) или {@code memory}.
+ */
+public interface ItemSearchEngine {
+
+    List<ItemDto> search(String searchText, Pageable pageable);
+
+    void index(ItemDto itemDto);
+
+    /**
+     * Убирает вещи, удаленные в текущей транзакции, например каскадом при удалении пользователя.
+     */
+    void unindex(Collection<Long> itemIds);
+}
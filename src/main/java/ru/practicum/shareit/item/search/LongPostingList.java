@@ -0,0 +1,99 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Отсортированный по возрастанию список id вещей без повторов, хранящийся в массиве {@code long[]}.
+ */
+final class LongPostingList {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] ids = EMPTY;
+    private int size;
+
+    void add(long id) {
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity(size + 1);
+            ids[size++] = id;
+            return;
+        }
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    void remove(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    static long[] intersect(long[] sorted, LongPostingList other) {
+        long[] result = new long[Math.min(sorted.length, other.size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sorted.length && j < other.size) {
+            if (sorted[i] < other.ids[j]) {
+                i++;
+            } else if (sorted[i] > other.ids[j]) {
+                j++;
+            } else {
+                result[count++] = sorted[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    static long[] union(List<LongPostingList> lists) {
+        int total = 0;
+        for (LongPostingList list : lists) {
+            total += list.size;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (LongPostingList list : lists) {
+            System.arraycopy(list.ids, 0, all, offset, list.size);
+            offset += list.size;
+        }
+        Arrays.sort(all);
+        int count = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (count == 0 || all[count - 1] != all[i]) {
+                all[count++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, count);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(capacity, Math.max(4, ids.length + (ids.length >> 1))));
+        }
+    }
+}
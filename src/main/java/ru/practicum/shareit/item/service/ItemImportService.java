@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.bulk.ItemBulkReader;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+
+import java.util.function.Consumer;
+
+public interface ItemImportService {
+
+    /**
+     * Создает вещи владельца из потока пачками и сообщает результат каждой строки сразу после
+     * фиксации ее пачки.
+     *
+     * @return число созданных вещей
+     */
+    int importItems(long userId, ItemBulkReader reader, Consumer<ItemImportResultDto> results);
+}
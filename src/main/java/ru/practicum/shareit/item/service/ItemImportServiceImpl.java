@@ -0,0 +1,154 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.bulk.ItemBulkReader;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.mappers.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Каждая пачка сохраняется в своей транзакции: уже подтвержденные строки не откатываются,
+ * если дальше в потоке встретится некорректный JSON или клиент оборвет соединение.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemImportServiceImpl implements ItemImportService {
+
+    static final int BATCH_SIZE = 500;
+
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final UserExistenceValidator userExistenceValidator;
+    private final ItemRequestRepository requestRepository;
+    private final ItemMapper itemMapper;
+    private final ItemSearchEngine itemSearchEngine;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int importItems(long userId, ItemBulkReader reader, Consumer<ItemImportResultDto> results) {
+        userExistenceValidator.validate(userId);
+        int created = 0;
+        int index = 0;
+        List<ItemDto> batch = new ArrayList<>(BATCH_SIZE);
+        String parseError = null;
+        while (true) {
+            ItemDto itemDto;
+            try {
+                itemDto = reader.next();
+            } catch (IOException e) {
+                parseError = String.format("Некорректный JSON: %s", e.getMessage());
+                break;
+            }
+            if (itemDto == null) {
+                break;
+            }
+            batch.add(itemDto);
+            if (batch.size() == BATCH_SIZE) {
+                created += importBatch(userId, index, batch, results);
+                index += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            created += importBatch(userId, index, batch, results);
+            index += batch.size();
+        }
+        if (parseError != null) {
+            results.accept(ItemImportResultDto.rejected(index, parseError));
+        }
+        log.debug("Импортировано {} вещей из {} для владельца с ID = {}", created, index, userId);
+        return created;
+    }
+
+    private int importBatch(long userId, int firstIndex, List<ItemDto> batch, Consumer<ItemImportResultDto> results) {
+        List<ItemImportResultDto> batchResults = transactionTemplate.execute(status -> {
+            User user = userRepository.getReferenceById(userId);
+            Map<Long, ItemRequest> requests = findRequests(batch);
+            List<ItemImportResultDto> rowResults = new ArrayList<>(batch.size());
+            List<Item> items = new ArrayList<>(batch.size());
+            List<Integer> itemIndexes = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                ItemDto itemDto = batch.get(i);
+                String error = validate(itemDto, requests);
+                if (error != null) {
+                    rowResults.add(ItemImportResultDto.rejected(firstIndex + i, error));
+                    continue;
+                }
+                Item item = itemMapper.toItem(itemDto);
+                item.setId(null);
+                item.setUser(user);
+                item.setRequest(itemDto.getRequestId() == null ? null : requests.get(itemDto.getRequestId()));
+                items.add(item);
+                itemIndexes.add(firstIndex + i);
+            }
+            itemRepository.saveAll(items);
+            entityManager.flush();
+            for (int i = 0; i < items.size(); i++) {
+                Item item = items.get(i);
+                rowResults.add(ItemImportResultDto.created(itemIndexes.get(i), item.getId()));
+                itemSearchEngine.index(itemMapper.toItemDto(item));
+            }
+            entityManager.clear();
+            rowResults.sort((left, right) -> Integer.compare(left.getIndex(), right.getIndex()));
+            return rowResults;
+        });
+        batchResults.forEach(results);
+        return (int) batchResults.stream().filter(result -> result.getId() != null).count();
+    }
+
+    private Map<Long, ItemRequest> findRequests(List<ItemDto> batch) {
+        Set<Long> requestIds = batch.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (requestIds.isEmpty()) {
+            return Map.of();
+        }
+        return requestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+    }
+
+    private String validate(ItemDto itemDto, Map<Long, ItemRequest> requests) {
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (itemDto.getRequestId() != null && !requests.containsKey(itemDto.getRequestId())) {
+            return String.format("Запроса с id %d нет в базе", itemDto.getRequestId());
+        }
+        return null;
+    }
+}
@@ -1,9 +1,12 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -22,4 +25,11 @@ public interface ItemService {
 
     CommentDto postComment(long userId, long itemId, CommentDto commentDto);
 
+    /**
+     * Комментарии вещи от новых к старым, страницами по ключу (created, id).
+     */
+    CursorPage<CommentDto> getComments(long itemId, String cursor, int size);
+
+    ItemAvailabilityDto getAvailability(long itemId, LocalDateTime start, LocalDateTime end);
+
 }
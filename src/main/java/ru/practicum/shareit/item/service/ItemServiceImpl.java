@@ -7,10 +7,16 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.mappers.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityCache;
+import ru.practicum.shareit.booking.dto.LastBookingDto;
+import ru.practicum.shareit.booking.dto.NextBookingDto;
+import ru.practicum.shareit.booking.exception.BookingException;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentItemView;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
 import ru.practicum.shareit.item.exeption.ItemBookerException;
@@ -22,16 +28,24 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.pagination.CursorException;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.SeekCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -40,12 +54,23 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
 
+    private static final Pageable FIRST_ROW = PageRequest.of(0, 1);
+    /**
+     * Сколько последних комментариев встраивается в ответ с вещью; остальные доступны через
+     * {@link #getComments(long, String, int)}.
+     */
+    static final int RECENT_COMMENTS = 10;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceValidator userExistenceValidator;
     private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryService bookingSummaryService;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository requestRepository;
     private final ItemMapper itemMapper;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemAvailabilityCache availabilityCache;
 
 
     @Transactional
@@ -60,8 +85,10 @@ public class ItemServiceImpl implements ItemService {
             ItemRequest request = requestRepository.findById(itemDto.getRequestId()).orElseThrow();
             item.setRequest(request);
         }
+        ItemDto createdItem = itemMapper.toItemDto(item);
+        itemSearchEngine.index(createdItem);
 
-        return itemMapper.toItemDto(item);
+        return createdItem;
     }
 
     @Transactional
@@ -74,14 +101,16 @@ public class ItemServiceImpl implements ItemService {
         item.setDescription(itemDto.getDescription() != null ? itemDto.getDescription() : item.getDescription());
         item.setAvailable(itemDto.getAvailable() != null ? itemDto.getAvailable() : item.getAvailable());
         log.debug("Вещь '{}' - обновлена", item);
+        ItemDto updatedItem = itemMapper.toItemDto(item);
+        itemSearchEngine.index(updatedItem);
 
-        return itemMapper.toItemDto(item);
+        return updatedItem;
     }
 
     @Override
     public ItemDto getItem(long itemId, long userId) {
         Item item = ifItemExistReturnItem(itemId);
-        List<CommentDto> comments = getCommentsByItemId(itemId);
+        List<CommentDto> comments = getRecentComments(itemId);
 
         if (item.getUser().getId() != userId) {
             ItemOwnerDto itemOwnerDto = itemMapper.toItemOwnerDto(item);
@@ -89,14 +118,14 @@ public class ItemServiceImpl implements ItemService {
             log.debug("Получена вещь '{}'", item);
             return itemOwnerDto;
         }
-        List<Booking> lastBookings = bookingRepository.findFirstByItemIdAndEndDateBefore(itemId);
-        Booking lastBooking = lastBookings.stream().findFirst().orElse(null);
-        List<Booking> nextBookings = bookingRepository.findFirstByItemIdAndStartDateAfter(itemId);
-        Booking nextBooking = nextBookings.stream().findFirst().orElse(null);
+        LastBookingDto lastBooking = bookingRepository.findLastBooking(itemId, FIRST_ROW)
+                .stream().findFirst().orElse(null);
+        NextBookingDto nextBooking = bookingRepository.findNextBooking(itemId, FIRST_ROW)
+                .stream().findFirst().orElse(null);
 
         ItemOwnerDto itemOwnerDto = itemMapper.toItemOwnerDto(item);
-        itemOwnerDto.setLastBooking(BookingMapper.INSTANCE.lastBookingDto(lastBooking));
-        itemOwnerDto.setNextBooking(BookingMapper.INSTANCE.nextBookingDto(nextBooking));
+        itemOwnerDto.setLastBooking(lastBooking);
+        itemOwnerDto.setNextBooking(nextBooking);
         itemOwnerDto.setComments(comments);
 
         log.debug("Владельцем получена вещь '{}'", itemOwnerDto);
@@ -106,24 +135,41 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public List<ItemDto> getAllItems(long userId, int from, int size) {
-        ifUserExistReturnUser(userId);
+        userExistenceValidator.validate(userId);
         Pageable pageable =
                 PageRequest.of(from, size);
-        final Page<Item> itemsPage = itemRepository.findAllByUserIdOrderByIdAsc(userId, pageable);
-        List<Item> items = itemsPage.getContent();
+        Page<Object[]> itemsPage = itemRepository.findAllWithBookingSummaryByUserId(userId, pageable);
+        if (itemsPage.isEmpty()) {
+            log.debug("У пользователя с id '{}' нет вещей", userId);
+            return Collections.emptyList();
+        }
+        List<Item> items = new ArrayList<>();
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        for (Object[] row : itemsPage) {
+            Item item = (Item) row[0];
+            items.add(item);
+            summaries.put(item.getId(), (ItemBookingSummary) row[1]);
+        }
+        bookingSummaryService.ensureCurrent(summaries);
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<CommentDto>> comments = commentRepository.findRecentByItemIdIn(itemIds, RECENT_COMMENTS)
+                .stream()
+                .collect(Collectors.groupingBy(CommentItemView::getItemId,
+                        Collectors.mapping(CommentMapper.INSTANCE::toCommentDto, Collectors.toList())));
         List<ItemDto> itemsDto = new ArrayList<>();
 
         for (Item item : items) {
             ItemOwnerDto itemDto = itemMapper.toItemOwnerDto(item);
-            List<Booking> lastBookings = bookingRepository.findFirstByItemIdAndEndDateBefore(item.getId());
-            Booking lastBooking = lastBookings.stream().findFirst().orElse(null);
-            List<Booking> nextBookings = bookingRepository.findFirstByItemIdAndStartDateAfter(item.getId());
-            Booking nextBooking = nextBookings.stream().findFirst().orElse(null);
-            List<CommentDto> comments = getCommentsByItemId(item.getId());
-
-            itemDto.setLastBooking(BookingMapper.INSTANCE.lastBookingDto(lastBooking));
-            itemDto.setNextBooking(BookingMapper.INSTANCE.nextBookingDto(nextBooking));
-            itemDto.setComments(comments);
+            ItemBookingSummary summary = summaries.get(item.getId());
+            if (summary != null) {
+                itemDto.setLastBooking(summary.getLastBookingId() == null ? null
+                        : new LastBookingDto(summary.getLastBookingId(), summary.getLastBookerId()));
+                itemDto.setNextBooking(summary.getNextBookingId() == null ? null
+                        : new NextBookingDto(summary.getNextBookingId(), summary.getNextBookerId()));
+            }
+            itemDto.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
             itemsDto.add(itemDto);
         }
         log.debug("Получен список вещей пользователя с id '{}'", userId);
@@ -133,18 +179,13 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public List<ItemDto> searchItem(long userId, String searchText, int from, int size) {
-        if (searchText.isEmpty()) {
+        if (searchText.isBlank()) {
             log.debug("Не было найдено ни одного предмета по запросу '{}'", searchText);
             return Collections.emptyList();
         }
         Pageable pageable = PageRequest.of(from, size);
-        final Page<Item> itemsPage = itemRepository.findByUserAndNameOrDescription(userId, searchText, pageable);
-        List<ItemDto> items = itemsPage
-                .stream()
-                .map(itemMapper::toItemDto)
-                .collect(Collectors.toList());
 
-        return items;
+        return itemSearchEngine.search(searchText, pageable);
     }
 
     @Override
@@ -157,22 +198,68 @@ public class ItemServiceImpl implements ItemService {
     @Transactional
     public CommentDto postComment(long userId, long itemId, CommentDto commentDto) {
         User user = ifUserExistReturnUser(userId);
+        // счетчик увеличивается под блокировкой строки вещи, иначе параллельные комментарии потеряют инкремент
+        itemRepository.lockById(itemId);
         Item item = ifItemExistReturnItem(itemId);
-        List<Booking> bookings = bookingRepository.findAllByItemIdAndBookerId(itemId, userId)
-                .stream()
-                .filter(b -> b.getEnd().isBefore(LocalDateTime.now()))
-                .collect(Collectors.toList());
-        if (bookings.isEmpty()) {
+        if (!bookingRepository.existsByItemIdAndBookerIdAndEndBefore(itemId, userId, LocalDateTime.now())) {
             throw new ItemBookerException(
                     String.format("Вещь с id %d не была арендована пользователем с id %d", itemId, userId));
         }
         Comment comment = commentRepository.save(CommentMapper.INSTANCE.toComment(commentDto));
         comment.setItem(item);
         comment.setAuthor(user);
+        // база хранит время с точностью до микросекунд, курсор страницы строится по времени из сущности
+        comment.setCreated(comment.getCreated().truncatedTo(ChronoUnit.MICROS));
+        item.setCommentCount(item.getCommentCount() + 1);
 
         return CommentMapper.INSTANCE.toCommentDto(comment);
     }
 
+    @Override
+    public CursorPage<CommentDto> getComments(long itemId, String cursor, int size) {
+        if (size < 1) {
+            throw new CursorException(String.format("Некорректный размер страницы: %s", size));
+        }
+        ifItemExistReturnItem(itemId);
+        // одна лишняя строка показывает, есть ли следующая страница
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Comment> comments;
+        if (cursor == null || cursor.isBlank()) {
+            comments = commentRepository.findRecentByItemId(itemId, limit);
+        } else {
+            SeekCursor after;
+            try {
+                after = SeekCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new CursorException(String.format("Некорректный курсор: %s", cursor));
+            }
+            comments = commentRepository.findByItemIdAfter(itemId, after.getStart(), after.getId(), limit);
+        }
+        String nextCursor = null;
+        if (comments.size() > size) {
+            comments = comments.subList(0, size);
+            Comment last = comments.get(size - 1);
+            nextCursor = SeekCursor.of(last.getCreated(), last.getId()).encode();
+        }
+        List<CommentDto> content = comments.stream()
+                .map(CommentMapper.INSTANCE::toCommentDto)
+                .collect(Collectors.toList());
+        log.debug("Получена страница комментариев вещи с id '{}'", itemId);
+        return new CursorPage<>(content, nextCursor);
+    }
+
+    @Override
+    public ItemAvailabilityDto getAvailability(long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            throw new BookingException(
+                    String.format("Дата окончания периода %s должна быть позже даты начала %s", end, start));
+        }
+        boolean available = availabilityCache.isFree(itemId, start, end);
+        log.debug("Вещь с id '{}' свободна с {} по {}: {}", itemId, start, end, available);
+
+        return new ItemAvailabilityDto(itemId, start, end, available);
+    }
+
     private void itemOwnerCheck(long userId, long itemId) {
         if (itemId != userId) {
             throw new ItemException(
@@ -180,8 +267,8 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
-    private List<CommentDto> getCommentsByItemId(long itemId) {
-        return commentRepository.findAllByItemId(itemId)
+    private List<CommentDto> getRecentComments(long itemId) {
+        return commentRepository.findRecentByItemId(itemId, PageRequest.of(0, RECENT_COMMENTS))
                 .stream()
                 .map(CommentMapper.INSTANCE::toCommentDto)
                 .collect(Collectors.toList());
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.method.HandlerMethod;
+import ru.practicum.shareit.booking.enums.BookingState;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Добавляет к метрике http.server.requests метод контроллера ({@code handler}, например
+ * {@code BookingController.getUserAllBooking}) и параметр {@code state} списков бронирований.
+ * Неизвестные значения state сводятся к UNKNOWN, чтобы число временных рядов оставалось ограниченным.
+ */
+@Component
+public class HandlerTagsContributor implements WebMvcTagsContributor {
+
+    private static final String NONE = "none";
+    private static final String STATE = "state";
+    private static final String UNKNOWN = "UNKNOWN";
+
+    @Override
+    public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                 Throwable exception) {
+        if (!(handler instanceof HandlerMethod)) {
+            return Tags.of("handler", NONE, STATE, NONE);
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        return Tags.of("handler", handlerMethod.getBeanType().getSimpleName() + "." +
+                        handlerMethod.getMethod().getName(),
+                STATE, state(request, handlerMethod));
+    }
+
+    @Override
+    public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+        return Tags.empty();
+    }
+
+    private static String state(HttpServletRequest request, HandlerMethod handler) {
+        String defaultState = stateDefault(handler);
+        if (defaultState == null) {
+            return NONE;
+        }
+        String state = request.getParameter(STATE);
+        if (state == null) {
+            return defaultState;
+        }
+        return BookingState.parse(state).map(Enum::name).orElse(UNKNOWN);
+    }
+
+    /**
+     * Значение по умолчанию параметра state метода контроллера или null, если такого параметра нет.
+     */
+    private static String stateDefault(HandlerMethod handler) {
+        for (MethodParameter parameter : handler.getMethodParameters()) {
+            RequestParam requestParam = parameter.getParameterAnnotation(RequestParam.class);
+            if (requestParam != null && STATE.equals(requestParam.name())) {
+                return requestParam.defaultValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.metrics;
+
+/**
+ * Запросы к базе, выполненные в потоке текущего HTTP-запроса.
+ */
+final class SqlRequestStatistics {
+
+    private static final ThreadLocal<SqlRequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private final String handler;
+    private final int budget;
+    private int statements;
+    private long elapsedMillis;
+    private boolean reported;
+
+    private SqlRequestStatistics(String handler, int budget) {
+        this.handler = handler;
+        this.budget = budget;
+    }
+
+    static void start(String handler, int budget) {
+        CURRENT.set(new SqlRequestStatistics(handler, budget));
+    }
+
+    /**
+     * @return статистика текущего запроса или null, если поток не обрабатывает HTTP-запрос
+     */
+    static SqlRequestStatistics current() {
+        return CURRENT.get();
+    }
+
+    static SqlRequestStatistics stop() {
+        SqlRequestStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    void add(int statements, long elapsedMillis) {
+        this.statements += statements;
+        this.elapsedMillis += elapsedMillis;
+    }
+
+    boolean exceeded() {
+        return statements > budget;
+    }
+
+    /**
+     * @return true только при первом вызове, чтобы превышение бюджета сообщалось один раз
+     */
+    boolean markReported() {
+        boolean first = !reported;
+        reported = true;
+        return first;
+    }
+
+    String getHandler() {
+        return handler;
+    }
+
+    int getBudget() {
+        return budget;
+    }
+
+    int getStatements() {
+        return statements;
+    }
+
+    long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
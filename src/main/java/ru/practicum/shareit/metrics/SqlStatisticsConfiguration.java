@@ -0,0 +1,46 @@
+package ru.practicum.shareit.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Подсчет SQL-запросов на каждый HTTP-запрос: источник данных оборачивается datasource-proxy,
+ * а {@link StatementBudgetInterceptor} задает границы HTTP-запроса и сверяет число запросов с бюджетом.
+ */
+@Configuration
+public class SqlStatisticsConfiguration implements WebMvcConfigurer {
+
+    private final StatementBudgetInterceptor statementBudgetInterceptor;
+
+    public SqlStatisticsConfiguration(StatementBudgetInterceptor statementBudgetInterceptor) {
+        this.statementBudgetInterceptor = statementBudgetInterceptor;
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlStatisticsDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .listener(new SqlStatisticsListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(statementBudgetInterceptor);
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Прибавляет каждое выполнение запроса к статистике текущего HTTP-запроса.
+ * Пакетное выполнение считается одним запросом, как и на стороне базы.
+ */
+class SqlStatisticsListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlRequestStatistics statistics = SqlRequestStatistics.current();
+        if (statistics != null) {
+            statistics.add(1, execInfo.getElapsedTime());
+        }
+    }
+}
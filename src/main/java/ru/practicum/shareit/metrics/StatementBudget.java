@@ -0,0 +1,17 @@
+package ru.practicum.shareit.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Сколько SQL-запросов может выполнить один вызов метода контроллера.
+ * Методы без аннотации ограничены {@code shareit.sql.budget.default-statements}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+    int value();
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import static ru.practicum.shareit.ServiceHeaders.X_SQL_STATEMENTS;
+import static ru.practicum.shareit.ServiceHeaders.X_SQL_TIME;
+
+/**
+ * Перед записью тела ответа добавляет заголовки с числом и временем SQL-запросов.
+ * С {@code shareit.sql.budget.fail-on-exceed=true} (профиль test) превышение бюджета
+ * завершает запрос ошибкой, чтобы тесты ловили новые N+1.
+ */
+@ControllerAdvice
+public class StatementBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+    private final boolean failOnExceed;
+
+    public StatementBudgetAdvice(@Value("${shareit.sql.budget.fail-on-exceed:false}") boolean failOnExceed) {
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlRequestStatistics statistics = SqlRequestStatistics.current();
+        if (statistics == null) {
+            return body;
+        }
+        response.getHeaders().set(X_SQL_STATEMENTS, String.valueOf(statistics.getStatements()));
+        response.getHeaders().set(X_SQL_TIME, String.valueOf(statistics.getElapsedMillis()));
+        if (failOnExceed && statistics.exceeded() && statistics.markReported()) {
+            throw new StatementBudgetExceededException(String.format("%s выполнил %d SQL-запросов при бюджете %d",
+                    statistics.getHandler(), statistics.getStatements(), statistics.getBudget()));
+        }
+        return body;
+    }
+}
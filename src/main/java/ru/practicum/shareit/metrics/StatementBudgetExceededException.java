@@ -0,0 +1,8 @@
+package ru.practicum.shareit.metrics;
+
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(final String message) {
+        super(message);
+    }
+}
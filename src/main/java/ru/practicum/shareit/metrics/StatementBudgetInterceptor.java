@@ -0,0 +1,79 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Начинает подсчет SQL-запросов перед вызовом метода контроллера, а после ответа
+ * записывает метрики shareit.sql.statements и shareit.sql.time и предупреждает о превышении бюджета.
+ */
+@Slf4j
+@Component
+public class StatementBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+
+    public StatementBudgetInterceptor(ObjectProvider<MeterRegistry> meterRegistry,
+                                      @Value("${shareit.sql.budget.default-statements:10}") int defaultBudget) {
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.defaultBudget = defaultBudget;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            StatementBudget budget = handlerMethod.getMethodAnnotation(StatementBudget.class);
+            SqlRequestStatistics.start(handlerMethod.getBeanType().getSimpleName() + "." +
+                    handlerMethod.getMethod().getName(), budget == null ? defaultBudget : budget.value());
+        }
+        return true;
+    }
+
+    /**
+     * Асинхронный ответ (например, {@code StreamingResponseBody}) пишется в другом потоке: его запросы
+     * не считаются, а счетчик потока контейнера нужно освободить сразу.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        SqlRequestStatistics.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        SqlRequestStatistics statistics = SqlRequestStatistics.stop();
+        if (statistics == null) {
+            return;
+        }
+        DistributionSummary.builder("shareit.sql.statements")
+                .description("SQL-запросы на один вызов метода контроллера")
+                .tag("handler", statistics.getHandler())
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        Timer.builder("shareit.sql.time")
+                .description("Время SQL-запросов на один вызов метода контроллера")
+                .tag("handler", statistics.getHandler())
+                .register(meterRegistry)
+                .record(statistics.getElapsedMillis(), TimeUnit.MILLISECONDS);
+        if (statistics.exceeded()) {
+            log.warn("{} {}: {} выполнил {} SQL-запросов при бюджете {}", request.getMethod(),
+                    request.getRequestURI(), statistics.getHandler(), statistics.getStatements(),
+                    statistics.getBudget());
+        }
+    }
+}
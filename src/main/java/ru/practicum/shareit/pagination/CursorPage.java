@@ -0,0 +1,24 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Страница списка без подсчета общего числа записей.
+ * {@code nextCursor} равен null, если страница последняя.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в списке, упорядоченном по убыванию (время, id): ключ последней отданной записи.
+ * Для бронирований время - начало бронирования, для комментариев - время создания.
+ * Клиенту передается в виде непрозрачной строки, следующая страница начинается строго после нее.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class SeekCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime start;
+    private final long id;
+
+    private SeekCursor(LocalDateTime start, long id) {
+        this.start = start;
+        this.id = id;
+    }
+
+    public static SeekCursor of(LocalDateTime start, long id) {
+        return new SeekCursor(start, id);
+    }
+
+    public String encode() {
+        String value = start + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException если строка не была получена из {@link #encode()}
+     */
+    public static SeekCursor decode(String cursor) {
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = value.lastIndexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException(value);
+        }
+        try {
+            return new SeekCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(value, e);
+        }
+    }
+}
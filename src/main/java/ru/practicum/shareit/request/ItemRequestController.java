@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.metrics.StatementBudget;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
@@ -42,6 +43,7 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
+    @StatementBudget(3)
     public ResponseEntity<List<ItemRequestDto>> getAllItems(
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @RequestParam(value = "from", defaultValue = "0", required = false) @Min(0) Integer from,
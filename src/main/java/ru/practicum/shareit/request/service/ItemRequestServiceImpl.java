@@ -18,9 +18,11 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -31,6 +33,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
+    private final UserExistenceValidator userExistenceValidator;
     private final ItemRepository itemRepository;
     private final ItemMapper itemMapper;
 
@@ -48,15 +51,11 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     public List<ItemRequestDto> getAllUserItemsRequests(long userId) {
 
-        ifUserExistReturnUser(userId);
+        userExistenceValidator.validate(userId);
         List<ItemRequestDto> itemRequests = itemRequestRepository.getAllByRequestorId(userId).stream()
                 .map(ItemRequestMapper.INSTANCE::toItemRequestDto)
-                .peek(itemRequestDto -> {
-                    List<Item> items = itemRepository.findAllByRequestId(itemRequestDto.getId());
-                    itemRequestDto.setItems(items.stream()
-                            .map(itemMapper::toItemDto).collect(Collectors.toList()));
-                })
                 .collect(Collectors.toList());
+        setItemsToRequests(itemRequests);
         log.debug("Получен список запросов пользователя с id '{}'", userId);
 
         return itemRequests;
@@ -64,17 +63,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestDto> getAllItems(long userId, Integer from, Integer size) {
-        ifUserExistReturnUser(userId);
+        userExistenceValidator.validate(userId);
         Pageable pageable = PageRequest.of(from / size, size);
         List<ItemRequest> requests = itemRequestRepository.findAllItems(userId, pageable);
         List<ItemRequestDto> itemRequests = requests.stream()
                 .map(ItemRequestMapper.INSTANCE::toItemRequestDto)
-                .peek(itemRequestDto -> {
-                    List<Item> items = itemRepository.findAllByRequestId(itemRequestDto.getId());
-                    itemRequestDto.setItems(items.stream()
-                            .map(itemMapper::toItemDto).collect(Collectors.toList()));
-                })
                 .collect(Collectors.toList());
+        setItemsToRequests(itemRequests);
 
         log.debug("Получен список запросов {}", itemRequests);
 
@@ -84,7 +79,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ItemRequestDto getItemRequest(Long userId, Long requestId) {
-        ifUserExistReturnUser(userId);
+        userExistenceValidator.validate(userId);
         ItemRequestDto itemRequestDto =
                 ItemRequestMapper.INSTANCE.toItemRequestDto(itemRequestRepository.findById(requestId)
                         .orElseThrow(() -> new ItemNotFoundException(
@@ -101,6 +96,21 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequestDto;
     }
 
+    private void setItemsToRequests(List<ItemRequestDto> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return;
+        }
+        List<Long> requestIds = itemRequests.stream()
+                .map(ItemRequestDto::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemDto>> items = itemRepository.findAllByRequestIdIn(requestIds)
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                        Collectors.mapping(itemMapper::toItemDto, Collectors.toList())));
+        itemRequests.forEach(itemRequestDto ->
+                itemRequestDto.setItems(items.getOrDefault(itemRequestDto.getId(), new ArrayList<>())));
+    }
+
     private User ifUserExistReturnUser(long userId) {
         return userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(
                 String.format("Пользователя с id %d нет в базе", userId)));
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+/**
+ * Проверка заголовка X-Sharer-User-Id там, где сам пользователь не нужен.
+ * Подтвержденные id запоминаются, поэтому для уже встречавшегося пользователя проверка обходится
+ * без запроса к базе; неизвестный id проверяется через {@code findById}, который в отличие от запроса
+ * не сбрасывает изменения контекста и может быть обслужен кэшем второго уровня.
+ * Число запомненных id ограничено, давно не встречавшиеся вытесняются.
+ * Новый пользователь попадает в набор при первой проверке: при добавлении id еще может не дойти до базы,
+ * если транзакция откатится на коммите.
+ * Id забывается после коммита удаления пользователя через этот экземпляр приложения. Удаление на другом
+ * экземпляре здесь не видно, но такой пользователь просто не найдет своих данных.
+ */
+@Component
+public class UserExistenceValidator {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Boolean> knownIds;
+
+    public UserExistenceValidator(UserRepository userRepository,
+                                  @Value("${shareit.users.known-ids.max-size:100000}") long maxKnownIds) {
+        this.userRepository = userRepository;
+        this.knownIds = Caffeine.newBuilder()
+                .maximumSize(maxKnownIds)
+                .build();
+    }
+
+    /**
+     * Id запоминается загрузкой под блокировкой ключа: {@link #forget}, пришедший во время запроса к базе,
+     * дождется ее окончания и уберет только что запомненный id, а не разминется с ним.
+     */
+    public void validate(long userId) {
+        knownIds.get(userId, id -> {
+            if (userRepository.findById(id).isEmpty()) {
+                throw new UserNotFoundException(String.format("Пользователя с id %d нет в базе", id));
+            }
+            return Boolean.TRUE;
+        });
+    }
+
+    public void forget(long userId) {
+        knownIds.invalidate(userId);
+    }
+}
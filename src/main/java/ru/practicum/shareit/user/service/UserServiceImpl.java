@@ -4,6 +4,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.TransactionHooks;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityCache;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.EmailException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
@@ -11,8 +18,10 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 
 @Slf4j
@@ -23,6 +32,13 @@ public class UserServiceImpl implements UserService {
 
 
     private final UserRepository repository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserExistenceValidator userExistenceValidator;
+    private final ItemRepository itemRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryService bookingSummaryService;
+    private final ItemAvailabilityCache availabilityCache;
 
 
     @Transactional
@@ -55,7 +71,24 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     public void deleteUser(long userId) {
+        List<Long> itemIds = itemRepository.findIdsDeletedWithUser(userId);
+        // сводки чужих вещей ссылаются на бронирования пользователя, которые удалит каскад
+        List<Long> bookedItemIds = bookingRepository.findItemIdsByBookerId(userId).stream()
+                .filter(itemId -> !itemIds.contains(itemId))
+                .collect(Collectors.toList());
+        itemRepository.subtractCommentsOfAuthor(userId);
         repository.deleteById(userId);
+        repository.flush();
+        bookingSummaryService.refreshAll(bookedItemIds);
+        itemSearchEngine.unindex(itemIds);
+        // вещи пользователя и вещи по его запросам удаляет каскад в базе, Hibernate о них не знает.
+        // До коммита пользователь и его вещи еще видны: параллельный запрос вернул бы их в кэши
+        TransactionHooks.afterCommit(() -> {
+            userExistenceValidator.forget(userId);
+            entityManagerFactory.getCache().evict(Item.class);
+            availabilityCache.evict(itemIds);
+            availabilityCache.evict(bookedItemIds);
+        });
         log.debug("Пользователь с id '{}' - удален", userId);
     }
 
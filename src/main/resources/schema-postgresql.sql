@@ -0,0 +1,16 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- lower() and the trigrams see Cyrillic letters only when the database LC_CTYPE is not C/POSIX, e.g. C.UTF-8
+CREATE INDEX IF NOT EXISTS IX_ITEMS_NAME_TRGM ON items USING gin (lower(name) gin_trgm_ops) WHERE available;
+CREATE INDEX IF NOT EXISTS IX_ITEMS_DESCRIPTION_TRGM ON items USING gin (lower(description) gin_trgm_ops)
+    WHERE available;
+-- the planner ignores statistics of partial indexes and would guess LIKE selectivity from the pattern length;
+-- with these (PostgreSQL 14+) it walks the primary key for common words and the trigram indexes for rare ones
+CREATE STATISTICS IF NOT EXISTS ST_ITEMS_NAME_LOWER ON (lower(name)) FROM items;
+CREATE STATISTICS IF NOT EXISTS ST_ITEMS_DESCRIPTION_LOWER ON (lower(description)) FROM items;
+
+-- the same statuses as BookingRepository.existsOverlapping: a waiting booking holds its period until it is rejected
+ALTER TABLE booking ADD CONSTRAINT EX_BOOKING_ITEM_PERIOD
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+    WHERE (status IN ('WAITING', 'APPROVED'));
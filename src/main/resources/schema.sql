@@ -1,44 +1,81 @@
-drop table if exists users, items, booking, comments, requests;
+drop table if exists item_booking_summary, users, items, booking, comments, requests;
+drop sequence if exists users_seq;
+drop sequence if exists requests_seq;
+drop sequence if exists items_seq;
+drop sequence if exists booking_seq;
+drop sequence if exists comments_seq;
+
+-- ids are allocated by Hibernate in blocks of 50 (pooled optimizer), so INCREMENT BY must match allocationSize
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS booking_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL primary key,
+    id BIGINT NOT NULL primary key,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
     CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
 
 CREATE TABLE IF NOT EXISTS requests (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL primary key,
+    id BIGINT NOT NULL primary key,
     description varchar NOT NULL,
     requestor_id  BIGINT references users(id) on delete cascade,
     created TIMESTAMP WITHOUT TIME ZONE  NOT NULL
 );
 
 CREATE TABLE IF NOT EXISTS items (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL primary key,
+    id BIGINT NOT NULL primary key,
     name VARCHAR(255) NOT NULL,
     description VARCHAR(255) NOT NULL,
     available BOOL NOT NULL,
+    comment_count BIGINT NOT NULL DEFAULT 0,
     user_id BIGINT references users(id) on delete cascade,
     request_id BIGINT references requests(id) on delete cascade
 );
 
 CREATE TABLE IF NOT EXISTS booking (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL primary key,
+    id BIGINT NOT NULL primary key,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id BIGINT references items(id) on delete cascade,
     booker_id BIGINT references users(id) on delete cascade,
-    status varchar(10)
+    status varchar(10),
+    -- UPCOMING/ACTIVE/FINISHED, advanced by BookingPhaseService so that FUTURE/CURRENT/PAST are equality lookups
+    phase varchar(10) NOT NULL
 );
 
 CREATE TABLE IF NOT EXISTS comments (
-	id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL primary key,
+	id bigint NOT NULL primary key,
 	text varchar NOT NULL,
 	item_id BIGINT references items(id) on delete cascade,
 	author_id bigint references users(id) on delete cascade,
 	created TIMESTAMP WITHOUT TIME ZONE NOT NULL
 );
 
+-- last/next booking per item, maintained by ItemBookingSummaryService; booking ids are not foreign keys,
+-- bookings removed by cascade are picked up by the reconciliation job
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+    item_id BIGINT NOT NULL primary key references items(id) on delete cascade,
+    last_booking_id BIGINT,
+    last_booker_id BIGINT,
+    next_booking_id BIGINT,
+    next_booker_id BIGINT,
+    roll_at TIMESTAMP WITHOUT TIME ZONE
+);
 
-
+CREATE INDEX IF NOT EXISTS IX_BOOKING_BOOKER_START ON booking (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ITEM_START ON booking (item_id, start_date);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ITEM_STATUS_START ON booking (item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ITEM_BOOKER_END ON booking (item_id, booker_id, end_date);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_BOOKER_PHASE_START ON booking (booker_id, phase, start_date DESC);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_PHASE_START ON booking (phase, start_date);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_PHASE_END ON booking (phase, end_date);
+CREATE INDEX IF NOT EXISTS IX_ITEMS_USER ON items (user_id, id);
+CREATE INDEX IF NOT EXISTS IX_ITEMS_REQUEST ON items (request_id);
+CREATE INDEX IF NOT EXISTS IX_COMMENTS_ITEM_CREATED ON comments (item_id, created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS IX_REQUESTS_REQUESTOR ON requests (requestor_id, id);
+CREATE INDEX IF NOT EXISTS IX_REQUESTS_CREATED ON requests (created DESC);
+CREATE INDEX IF NOT EXISTS IX_ITEM_BOOKING_SUMMARY_ROLL_AT ON item_booking_summary (roll_at);
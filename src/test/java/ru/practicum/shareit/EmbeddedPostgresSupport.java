@@ -0,0 +1,60 @@
+package ru.practicum.shareit;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Настоящий PostgreSQL для тестов того, чего нет в H2: ограничения исключения, индексов pg_trgm и планов
+ * запросов PostgreSQL. Сервер из пакета embedded-postgres запускается без Docker один раз на JVM
+ * и останавливается вместе с ней. Тест подключается к нему профилем {@code postgres}:
+ * <pre>
+ * &#64;ActiveProfiles("postgres")
+ * class SomePostgresTests {
+ *     &#64;DynamicPropertySource
+ *     static void postgres(DynamicPropertyRegistry registry) {
+ *         EmbeddedPostgresSupport.register(registry);
+ *     }
+ * }
+ * </pre>
+ */
+public final class EmbeddedPostgresSupport {
+
+    private static EmbeddedPostgres postgres;
+
+    private EmbeddedPostgresSupport() {
+    }
+
+    public static synchronized String jdbcUrl() {
+        if (postgres == null) {
+            try {
+                // в локали C функция lower и pg_trgm не видят кириллицу, названия вещей в тестах русские
+                postgres = EmbeddedPostgres.builder()
+                        .setLocaleConfig("locale", "C.UTF-8")
+                        .start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось запустить встроенный PostgreSQL", e);
+            }
+            EmbeddedPostgres started = postgres;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException ignored) {
+                    // JVM уже завершается, остановить сервер иначе нечем
+                }
+            }));
+        }
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    public static void register(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", EmbeddedPostgresSupport::jdbcUrl);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        // задачи по расписанию меняли бы данные теста, как и в профиле test
+        registry.add("shareit.booking-summary.jobs.enabled", () -> "false");
+        registry.add("shareit.booking-phase.jobs.enabled", () -> "false");
+    }
+}
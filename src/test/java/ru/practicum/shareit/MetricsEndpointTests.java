@@ -0,0 +1,50 @@
+package ru.practicum.shareit;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"db.name=test", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class MetricsEndpointTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Метрики контроллеров, репозиториев, пула соединений и Hibernate доступны в формате Prometheus")
+    void prometheusEndpointExposesApplicationMetrics() {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "PAST"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "NOT_A_STATE"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("handler=\"BookingController.getUserAllBooking\"")))
+                .andExpect(content().string(containsString("state=\"PAST\"")))
+                .andExpect(content().string(containsString("state=\"UNKNOWN\"")))
+                .andExpect(content().string(containsString("shareit_booking_queries_seconds_count")))
+                .andExpect(content().string(containsString("repository=\"UserRepository\"")))
+                .andExpect(content().string(containsString("hikaricp_connections")))
+                .andExpect(content().string(containsString("hibernate_query_executions_total")));
+    }
+}
@@ -0,0 +1,229 @@
+package ru.practicum.shareit;
+
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.enums.BookingPhase;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.SeekCursor;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Проверяет планы запросов репозиториев на заполненной базе: ни один из них не должен читать таблицу целиком.
+ * Метод репозитория вызывается в транзакции с откатом, а EXPLAIN выполняется для каждого SQL, который
+ * при этом ушел в базу, с теми же параметрами.
+ * {@code ItemRequestRepository.findAllItems} (условие {@code requestor_id != ?}) и поиск по подстроке
+ * не проверяются: такие условия индексом не покрываются.
+ */
+@DataJpaTest
+@Import(StatementCapture.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class SchemaIndexTests {
+
+    private static final int USERS = 200;
+    private static final int REQUESTS = 1_000;
+    private static final int ITEMS = 2_000;
+    private static final int BOOKINGS = 20_000;
+    private static final int COMMENTS = 5_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private StatementCapture capture;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository requestRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeAll
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{i, "User" + i, "user" + i + "@user.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", users);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (int i = 1; i <= REQUESTS; i++) {
+            requests.add(new Object[]{i, "Запрос " + i, i % USERS + 1, Timestamp.valueOf(now.minusHours(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO requests (id, description, requestor_id, created) VALUES (?, ?, ?, ?)",
+                requests);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 1; i <= ITEMS; i++) {
+            Integer requestId = i % 2 == 0 ? i / 2 : null;
+            items.add(new Object[]{i, "Вещь " + i, "Описание " + i, true, i % USERS + 1, requestId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, name, description, available, user_id, request_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", items);
+
+        String[] statuses = {"WAITING", "APPROVED", "REJECTED"};
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = 1; i <= BOOKINGS; i++) {
+            LocalDateTime start = now.plusHours(i % 100 - 50);
+            LocalDateTime end = start.plusHours(2);
+            bookings.add(new Object[]{i, Timestamp.valueOf(start), Timestamp.valueOf(end), i % ITEMS + 1,
+                    i % USERS + 1, statuses[i % statuses.length], BookingPhase.at(start, end, now).name()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO booking (id, start_date, end_date, item_id, booker_id, status, phase) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", bookings);
+
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 1; i <= COMMENTS; i++) {
+            comments.add(new Object[]{i, "Комментарий " + i, i % ITEMS + 1, i % USERS + 1, Timestamp.valueOf(now)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)",
+                comments);
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @DisplayName("Запросы репозиториев используют индексы")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQueryDoesNotScanTable(String query, Runnable call) {
+        List<QueryInfo> statements = record(call);
+
+        assertFalse(statements.isEmpty(), "Метод репозитория не выполнил ни одного запроса");
+        for (QueryInfo statement : statements) {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + statement.getQuery(), String.class,
+                    StatementCapture.parameters(statement));
+
+            assertFalse(plan.contains("tableScan"), plan);
+        }
+    }
+
+    private Stream<Arguments> repositoryQueries() {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest page = PageRequest.of(0, 10);
+        List<Long> ids = List.of(1L, 2L, 3L);
+        SeekCursor after = SeekCursor.of(now, 100);
+        List<Arguments> queries = new ArrayList<>();
+        for (BookingRole role : BookingRole.values()) {
+            for (BookingState state : BookingState.values()) {
+                String suffix = " " + role + " " + state;
+                queries.add(Arguments.of("BookingListRepository.findBookingsPage" + suffix,
+                        (Runnable) () -> bookingRepository.findBookingsPage(role, 7, state, 20, 10)));
+                queries.add(Arguments.of("BookingListRepository.findBookingsAfter" + suffix,
+                        (Runnable) () -> bookingRepository.findBookingsAfter(role, 7, state, after, 10)));
+                queries.add(Arguments.of("BookingListRepository.countBookings" + suffix,
+                        (Runnable) () -> bookingRepository.countBookings(role, 7, state)));
+            }
+        }
+        Stream<Arguments> others = Stream.of(
+                Arguments.of("BookingRepository.streamAllByOwnerId",
+                        (Runnable) () -> {
+                            try (Stream<?> bookings = bookingRepository.streamAllByOwnerId(7)) {
+                                bookings.limit(10).forEach(booking -> {
+                                });
+                            }
+                        }),
+                Arguments.of("BookingRepository.findLastBooking",
+                        (Runnable) () -> bookingRepository.findLastBooking(7, PageRequest.of(0, 1))),
+                Arguments.of("BookingRepository.findNextBooking",
+                        (Runnable) () -> bookingRepository.findNextBooking(7, PageRequest.of(0, 1))),
+                Arguments.of("BookingRepository.existsOverlapping",
+                        (Runnable) () -> bookingRepository.existsOverlapping(7, now, now.plusHours(1))),
+                Arguments.of("BookingRepository.findActiveIntervalsByItemId",
+                        (Runnable) () -> bookingRepository.findActiveIntervalsByItemId(7)),
+                Arguments.of("BookingRepository.existsByItemIdAndBookerIdAndEndBefore",
+                        (Runnable) () -> bookingRepository.existsByItemIdAndBookerIdAndEndBefore(7, 8, now)),
+                Arguments.of("BookingRepository.findItemIdsByBookerId",
+                        (Runnable) () -> bookingRepository.findItemIdsByBookerId(7)),
+                Arguments.of("BookingRepository.updatePhase",
+                        (Runnable) () -> bookingRepository.updatePhase(ids, BookingPhase.ACTIVE,
+                                List.of(BookingPhase.UPCOMING))),
+                Arguments.of("BookingRepository.finishEnded",
+                        (Runnable) () -> bookingRepository.finishEnded(now)),
+                Arguments.of("BookingRepository.activateStarted",
+                        (Runnable) () -> bookingRepository.activateStarted(now)),
+                Arguments.of("BookingRepository.findStartsBetween",
+                        (Runnable) () -> bookingRepository.findStartsBetween(now, now.plusHours(1))),
+                Arguments.of("BookingRepository.findEndsBetween",
+                        (Runnable) () -> bookingRepository.findEndsBetween(now, now.plusHours(1))),
+                Arguments.of("ItemBookingSummaryRepository.computeByItemIdIn",
+                        (Runnable) () -> summaryRepository.computeByItemIdIn(ids, now)),
+                Arguments.of("ItemBookingSummaryRepository.findItemIdsToRoll",
+                        (Runnable) () -> summaryRepository.findItemIdsToRoll(now, PageRequest.of(0, 500))),
+                Arguments.of("ItemRepository.findAllWithBookingSummaryByUserId",
+                        (Runnable) () -> itemRepository.findAllWithBookingSummaryByUserId(7, page)),
+                Arguments.of("ItemRepository.findAllByUserIdOrderByIdAsc",
+                        (Runnable) () -> itemRepository.findAllByUserIdOrderByIdAsc(7, page)),
+                Arguments.of("ItemRepository.findAllByRequestId",
+                        (Runnable) () -> itemRepository.findAllByRequestId(7)),
+                Arguments.of("ItemRepository.findAllByRequestIdIn",
+                        (Runnable) () -> itemRepository.findAllByRequestIdIn(ids)),
+                Arguments.of("CommentRepository.findRecentByItemId",
+                        (Runnable) () -> commentRepository.findRecentByItemId(7, page)),
+                Arguments.of("CommentRepository.findByItemIdAfter",
+                        (Runnable) () -> commentRepository.findByItemIdAfter(7, now, 100, page)),
+                Arguments.of("CommentRepository.findRecentByItemIdIn",
+                        (Runnable) () -> commentRepository.findRecentByItemIdIn(ids, 10)),
+                Arguments.of("ItemRequestRepository.getAllByRequestorId",
+                        (Runnable) () -> requestRepository.getAllByRequestorId(7)),
+                Arguments.of("UserRepository.findByEmail",
+                        (Runnable) () -> userRepository.findByEmail("user7@user.com"))
+        );
+        return Stream.concat(queries.stream(), others);
+    }
+
+    /**
+     * Выполняет вызов в транзакции с откатом, чтобы запросы изменения не трогали данные, и возвращает
+     * все выполненные за это время запросы.
+     */
+    private List<QueryInfo> record(Runnable call) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            status.setRollbackOnly();
+            capture.start();
+            try {
+                call.run();
+            } finally {
+                capture.stop();
+            }
+            return capture.statements();
+        });
+    }
+}
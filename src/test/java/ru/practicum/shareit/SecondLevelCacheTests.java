@@ -0,0 +1,109 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Кэш второго уровня выключен в профиле test, здесь он включается для отдельного контекста.
+ */
+@SpringBootTest(
+        properties = {"db.name=test",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+                "spring.jpa.properties.hibernate.generate_statistics=true"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SecondLevelCacheTests {
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    private User owner;
+    private Item item;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "owner@mail.com", "Owner"));
+        item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Повторное чтение пользователя по id не обращается к базе")
+    void getUserSecondCallServedFromCache() {
+        userService.getUser(owner.getId());
+        long statements = statistics.getPrepareStatementCount();
+
+        userService.getUser(owner.getId());
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+        assertFalse(meterRegistry.find("hibernate.second.level.cache.requests").tag("result", "hit")
+                .functionCounters().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Обновление пользователя видно при следующем чтении из кэша")
+    void updateUserCacheUpdated() {
+        userService.getUser(owner.getId());
+
+        userService.updateUser(owner.getId(), new UserDto(null, null, "Renamed"));
+
+        assertEquals("Renamed", userService.getUser(owner.getId()).getName());
+    }
+
+    @Test
+    @DisplayName("Удаление пользователя вытесняет его вещи, удаленные каскадом в базе")
+    void deleteUserItemsEvicted() {
+        itemService.getItem(item.getId(), owner.getId());
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+
+        userService.deleteUser(owner.getId());
+
+        assertTrue(userRepository.findById(owner.getId()).isEmpty());
+        assertFalse(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+        assertTrue(itemRepository.findById(item.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Поиск пользователя по email кэшируется до изменения таблицы пользователей")
+    void findByEmailQueryCached() {
+        userRepository.findByEmail(owner.getEmail());
+        userRepository.findByEmail(owner.getEmail());
+
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        userRepository.save(new User(null, "other@mail.com", "Other"));
+        userRepository.findByEmail(owner.getEmail());
+
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Оборачивает источник данных datasource-proxy и запоминает запросы, выполненные между
+ * {@link #start()} и {@link #stop()}.
+ */
+@TestConfiguration
+public class StatementCapture implements QueryExecutionListener {
+
+    private final List<QueryInfo> statements = new CopyOnWriteArrayList<>();
+    private volatile boolean recording;
+
+    @Bean
+    static BeanPostProcessor statementCaptureDataSourcePostProcessor(StatementCapture capture) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name("statement-capture-" + beanName)
+                            .listener(capture)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    public void start() {
+        statements.clear();
+        recording = true;
+    }
+
+    public void stop() {
+        recording = false;
+    }
+
+    public List<QueryInfo> statements() {
+        return List.copyOf(statements);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (recording) {
+            statements.addAll(queryInfoList);
+        }
+    }
+
+    /**
+     * Параметры запроса в порядке номеров, как их передал Hibernate; у пакетного запроса - первого набора.
+     */
+    public static Object[] parameters(QueryInfo statement) {
+        if (statement.getParametersList().isEmpty()) {
+            return new Object[0];
+        }
+        return statement.getParametersList().get(0).stream()
+                .sorted(Comparator.comparingInt(operation -> (Integer) operation.getArgs()[0]))
+                .map(StatementCapture::value)
+                .toArray();
+    }
+
+    private static Object value(ParameterSetOperation operation) {
+        return ParameterSetOperation.isSetNullParameterOperation(operation) ? null : operation.getArgs()[1];
+    }
+}
@@ -10,25 +10,33 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.CursorPage;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookingController.class)
@@ -194,7 +202,7 @@ public class BookingControllerTests {
                         .content(objectMapper.writeValueAsString(bookingDto))
                         .param("size", String.valueOf(size))
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isInternalServerError());
+                .andExpect(status().isBadRequest());
 
         verify(bookingService, never()).getAllBookingByOwner(userId, state, from, size);
     }
@@ -213,7 +221,7 @@ public class BookingControllerTests {
                         .content(objectMapper.writeValueAsString(bookingDto))
                         .param("size", String.valueOf(size))
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isInternalServerError());
+                .andExpect(status().isBadRequest());
 
         verify(bookingService, never()).getAllBookingByOwner(userId, state, from, size);
     }
@@ -232,7 +240,7 @@ public class BookingControllerTests {
                         .content(objectMapper.writeValueAsString(bookingDto))
                         .param("from", String.valueOf(from))
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isInternalServerError());
+                .andExpect(status().isBadRequest());
 
         verify(bookingService, never()).getAllBookingByOwner(userId, state, from, size);
     }
@@ -251,8 +259,70 @@ public class BookingControllerTests {
                         .content(objectMapper.writeValueAsString(bookingDto))
                         .param("size", String.valueOf(size))
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isInternalServerError());
+                .andExpect(status().isBadRequest());
 
         verify(bookingService, never()).getUserAllBooking(userId, state, from, size);
     }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Получение страницы бронирований пользователя по курсору")
+    void getUserAllBookingCursorNextCursorHeaderReturned() {
+        when(bookingService.getUserBookingsAfter(1L, "ALL", "", 10))
+                .thenReturn(new CursorPage<>(List.of(bookingDto), "next"));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$", hasSize(1)));
+        verify(bookingService, never()).getUserAllBooking(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Последняя страница бронирований владельца по курсору")
+    void getAllBookingByOwnerCursorLastPageWithoutHeader() {
+        when(bookingService.getOwnerBookingsAfter(1L, "ALL", "cursor", 10))
+                .thenReturn(new CursorPage<>(List.of(bookingDto), null));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "cursor"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(1)));
+        verify(bookingService, never()).getAllBookingByOwner(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Выгрузка бронирований владельца в NDJSON")
+    void exportOwnerBookingsNdjsonStreamed() {
+        BookingDto first = new BookingDto();
+        first.setId(1L);
+        BookingDto second = new BookingDto();
+        second.setId(2L);
+        doAnswer(invocation -> {
+            Consumer<BookingDto> consumer = invocation.getArgument(1);
+            consumer.accept(first);
+            consumer.accept(second);
+            return 2;
+        }).when(bookingService).exportOwnerBookings(eq(1L), any());
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        assertEquals(BookingController.EXPORT_TIMEOUT_MILLIS, result.getRequest().getAsyncContext().getTimeout());
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, result.getResponse().getContentType());
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], BookingDto.class).getId());
+        assertEquals(2L, objectMapper.readValue(lines[1], BookingDto.class).getId());
+        verify(bookingService).checkUserExists(1L);
+    }
 }
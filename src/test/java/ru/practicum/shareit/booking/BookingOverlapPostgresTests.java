@@ -0,0 +1,165 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.EmbeddedPostgresSupport;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.overlap.BookingOverlapGuard;
+import ru.practicum.shareit.booking.overlap.ExclusionConstraintOverlapGuard;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mappers.ItemMapperImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.practicum.shareit.booking.enums.BookingStatus.APPROVED;
+import static ru.practicum.shareit.booking.enums.BookingStatus.REJECTED;
+import static ru.practicum.shareit.booking.enums.BookingStatus.WAITING;
+
+/**
+ * Ограничение EX_BOOKING_ITEM_PERIOD на настоящем PostgreSQL: в профиле {@code postgres} создание брони
+ * не блокирует вещь, и от двойного бронирования защищает только ограничение.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("postgres")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingOverlapPostgresTests {
+
+    private static final int ATTEMPTS = 500;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+    @Autowired
+    private BookingOverlapGuard overlapGuard;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemMapperImpl itemMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User booker;
+    private Item item;
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry);
+    }
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(UserMapper.INSTANCE.toUser(new UserDto(null, "Owner", "owner@mail.com")));
+        booker = userRepository.save(UserMapper.INSTANCE.toUser(new UserDto(null, "Booker", "booker@mail.com")));
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Палатка");
+        itemDto.setDescription("Четырехместная палатка");
+        itemDto.setAvailable(true);
+        item = itemMapper.toItem(itemDto);
+        item.setUser(owner);
+        item = itemRepository.save(item);
+    }
+
+    @Test
+    @DisplayName("Из 500 параллельных пересекающихся бронирований ограничение пропускает ровно одно")
+    void createBookingConcurrentOverlappingRequestsOnlyOneCreated() throws Exception {
+        assertInstanceOf(ExclusionConstraintOverlapGuard.class, overlapGuard);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            BookingDto bookingDto = new BookingDto();
+            bookingDto.setItemId(item.getId());
+            bookingDto.setStart(start.plusMinutes(i));
+            bookingDto.setEnd(start.plusDays(2));
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                try {
+                    bookingService.createBooking(booker.getId(), bookingDto);
+                    return true;
+                } catch (BookingOverlapException e) {
+                    return false;
+                }
+            }));
+        }
+        startSignal.countDown();
+
+        int created = 0;
+        try {
+            for (Future<Boolean> result : results) {
+                if (result.get(1, TimeUnit.MINUTES)) {
+                    created++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, created);
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    @DisplayName("Ограничение не дает сохранить пересечение ожидающей брони с подтвержденной в обход проверки")
+    void saveOverlappingWaitingBookingConstraintViolated() {
+        bookingRepository.saveAndFlush(booking(start, start.plusDays(2), APPROVED));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> bookingRepository.saveAndFlush(booking(start.plusDays(1), start.plusDays(3), WAITING)));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Отклоненная бронь не занимает период")
+    void saveBookingOverlappingRejectedSaved() {
+        bookingRepository.saveAndFlush(booking(start, start.plusDays(2), REJECTED));
+
+        bookingRepository.saveAndFlush(booking(start.plusDays(1), start.plusDays(3), WAITING));
+
+        assertEquals(2, bookingRepository.count());
+    }
+
+    private Booking booking(LocalDateTime from, LocalDateTime to, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(from);
+        booking.setEnd(to);
+        booking.setStatus(status);
+        return booking;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.phase.BookingPhaseJobs;
+import ru.practicum.shareit.booking.phase.BookingPhaseService;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPhaseJobsTests {
+
+    @Mock
+    private BookingPhaseService phaseService;
+
+    @Test
+    @DisplayName("При старте приложения фазы догоняются сразу, не дожидаясь первой плановой загрузки")
+    void reconcileOnStartupRefilled() {
+        BookingPhaseJobs jobs = new BookingPhaseJobs(phaseService, 500, 3_600_000, 600_000);
+
+        jobs.reconcileOnStartup();
+
+        verify(phaseService).refill();
+    }
+
+    @Test
+    @DisplayName("Загрузка реже окна не дает приложению стартовать")
+    void refillIntervalLongerThanWindowException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BookingPhaseJobs(phaseService, 500, 600_000, 3_600_000));
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.phase.BookingPhaseService;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.shareit.booking.enums.BookingPhase.ACTIVE;
+import static ru.practicum.shareit.booking.enums.BookingPhase.FINISHED;
+import static ru.practicum.shareit.booking.enums.BookingPhase.UPCOMING;
+import static ru.practicum.shareit.booking.enums.BookingStatus.APPROVED;
+
+/**
+ * Перевод фаз коммитит пачки в своих транзакциях, поэтому тесты идут без общей транзакции.
+ * Колесо поворачивается по часам {@link TestClock}, которые тест сдвигает сам, вместо ожидания срока.
+ */
+@SpringBootTest(properties = {"db.name=test", "shareit.booking-phase.window-ms=60000"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingPhaseServiceIntegrationTests {
+
+    private final BookingPhaseService phaseService;
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TestClock clock;
+
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(new User(null, "owner@mail.com", "Owner"));
+        booker = userRepository.save(new User(null, "booker@mail.com", "Booker"));
+        item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+    }
+
+    @Test
+    @DisplayName("Колесо переводит созданное бронирование, когда наступает его начало")
+    void advanceStartedBookingActivated() {
+        phaseService.refill();
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.now().plusSeconds(30));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(1));
+
+        long bookingId = bookingService.createBooking(booker.getId(), bookingDto).getId();
+        assertEquals(UPCOMING, bookingRepository.findById(bookingId).orElseThrow().getPhase());
+
+        assertEquals(0, phaseService.advance(10));
+        clock.advance(Duration.ofMinutes(1));
+
+        assertEquals(1, phaseService.advance(10));
+        assertEquals(ACTIVE, bookingRepository.findById(bookingId).orElseThrow().getPhase());
+    }
+
+    @Test
+    @DisplayName("Загрузка окна догоняет переходы, прошедшие мимо колеса")
+    void refillMissedTransitionsSwept() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking started = bookingRepository.save(new Booking(0, now.minusHours(1), now.plusHours(1), item, booker,
+                APPROVED));
+        Booking ended = bookingRepository.save(new Booking(0, now.minusHours(3), now.minusHours(2), item, booker,
+                APPROVED));
+        // как будто оба срока прошли, пока приложение стояло
+        transactionTemplate.execute(status -> bookingRepository.updatePhase(List.of(started.getId(), ended.getId()),
+                UPCOMING, List.of(ACTIVE, FINISHED)));
+
+        int swept = phaseService.refill();
+
+        assertEquals(2, swept);
+        assertEquals(ACTIVE, bookingRepository.findById(started.getId()).orElseThrow().getPhase());
+        assertEquals(FINISHED, bookingRepository.findById(ended.getId()).orElseThrow().getPhase());
+    }
+
+    @TestConfiguration
+    static class ClockConfiguration {
+
+        @Bean
+        TestClock clock() {
+            return new TestClock();
+        }
+    }
+
+    /**
+     * Системные часы, которые тест может сдвинуть вперед.
+     */
+    static class TestClock extends Clock {
+
+        private volatile Duration offset = Duration.ZERO;
+
+        void advance(Duration duration) {
+            offset = offset.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.now().plus(offset);
+        }
+    }
+}
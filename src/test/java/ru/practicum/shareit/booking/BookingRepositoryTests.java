@@ -1,32 +1,55 @@
 package ru.practicum.shareit.booking;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.dto.LastBookingDto;
+import ru.practicum.shareit.booking.dto.NextBookingDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.mappers.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.phase.BookingInstantView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryView;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mappers.ItemMapperImpl;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.SeekCursor;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.booking.enums.BookingPhase.ACTIVE;
+import static ru.practicum.shareit.booking.enums.BookingPhase.FINISHED;
+import static ru.practicum.shareit.booking.enums.BookingPhase.UPCOMING;
 import static ru.practicum.shareit.booking.enums.BookingStatus.APPROVED;
+import static ru.practicum.shareit.booking.enums.BookingStatus.REJECTED;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 public class BookingRepositoryTests {
 
@@ -34,9 +57,13 @@ public class BookingRepositoryTests {
     @Autowired
     private BookingRepository bookingRepository;
     @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
     private UserRepository userRepository;
     @Autowired
     private ItemRepository itemRepository;
+    @Autowired
+    private TestEntityManager entityManager;
     private User user = new User();
     private User otherUser = new User();
     private Item item = new Item();
@@ -80,140 +107,268 @@ public class BookingRepositoryTests {
     }
 
     @Test
-    @DisplayName("Получение всех бронирований")
-    void findAllByBookerIdOrderByStartDateDesc() {
-        List<Booking> bookings = bookingRepository
-                .findAllByBookerIdOrderByStartDateDesc(otherUser.getId(), Pageable.ofSize(10)).getContent();
-        assertEquals(3, bookings.size());
-        assertEquals(nextBooking, bookings.get(0));
-        assertEquals(booking, bookings.get(1));
-        assertEquals(lastBooking, bookings.get(2));
+    @DisplayName("Проверка завершенной аренды вещи пользователем")
+    void existsByItemIdAndBookerIdAndEndBefore() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertTrue(bookingRepository.existsByItemIdAndBookerIdAndEndBefore(item.getId(), otherUser.getId(), now));
+        assertFalse(bookingRepository.existsByItemIdAndBookerIdAndEndBefore(item.getId(), user.getId(), now));
+        assertFalse(bookingRepository.existsByItemIdAndBookerIdAndEndBefore(item.getId(), otherUser.getId(),
+                stored(lastBooking.getEnd())));
     }
 
     @Test
-    @DisplayName("Прошедших бронирований")
-    void findAllByBookerIdAndEndDateBefore() {
-        List<Booking> bookings = bookingRepository
-                .findAllByBookerIdAndEndDateBefore(otherUser.getId(), Pageable.ofSize(10)).getContent();
+    @DisplayName("Получение последнего бронирования вещи без загрузки сущностей")
+    void findLastBooking() {
+        List<LastBookingDto> bookings = bookingRepository
+                .findLastBooking(item.getId(), PageRequest.of(0, 1));
 
         assertEquals(1, bookings.size());
-        assertEquals(lastBooking, bookings.get(0));
+        assertEquals(booking.getId(), bookings.get(0).getId());
+        assertEquals(otherUser.getId(), bookings.get(0).getBookerId());
     }
 
     @Test
-    @DisplayName("Будущие бронирования")
-    void findAllByBookerIdAndStartDateAfter() {
-        List<Booking> bookings = bookingRepository
-                .findAllByBookerIdAndStartDateAfter(otherUser.getId(), Pageable.ofSize(10)).getContent();
+    @DisplayName("Получение следующего бронирования вещи без загрузки сущностей")
+    void findNextBooking() {
+        List<NextBookingDto> bookings = bookingRepository
+                .findNextBooking(item.getId(), PageRequest.of(0, 1));
 
         assertEquals(1, bookings.size());
-        assertEquals(nextBooking, bookings.get(0));
+        assertEquals(nextBooking.getId(), bookings.get(0).getId());
+        assertEquals(otherUser.getId(), bookings.get(0).getBookerId());
     }
 
     @Test
-    @DisplayName("Текущие бронирований")
-    void findAllByBookerIdAndDateBeforeAndDateAfter() {
-        List<Booking> bookings = bookingRepository
-                .findAllByBookerIdAndDateBeforeAndDateAfter(otherUser.getId(), Pageable.ofSize(10)).getContent();
+    @DisplayName("Проверка пересечения периода с подтвержденными и ожидающими бронированиями вещи")
+    void existsOverlapping() {
+        LocalDateTime now = LocalDateTime.now();
 
-        assertEquals(1, bookings.size());
-        assertEquals(booking, bookings.get(0));
+        assertTrue(bookingRepository.existsOverlapping(item.getId(), now.plusMinutes(5), now.plusMinutes(20)));
+        assertFalse(bookingRepository.existsOverlapping(item.getId(), now.plusMinutes(20), now.plusMinutes(30)));
+        nextBooking.setStatus(REJECTED);
+        assertFalse(bookingRepository.existsOverlapping(item.getId(), now.plusMinutes(5), now.plusMinutes(8)));
     }
 
     @Test
-    @DisplayName("Получение всех бронирований с определенным статусом")
-    void findAllByBookerIdAndStatusOrderByStartDateDesc() {
-        List<Booking> bookings = bookingRepository
-                .findAllByBookerIdAndStatusOrderByStartDateDesc(otherUser.getId(), APPROVED,
-                        Pageable.ofSize(10)).getContent();
+    @DisplayName("Фаза вычисляется при сохранении и пересчитывается при изменении дат")
+    void phaseUpdatedOnWrite() {
+        entityManager.flush();
 
-        assertEquals(3, bookings.size());
-        assertEquals(nextBooking, bookings.get(0));
-        assertEquals(booking, bookings.get(1));
-        assertEquals(lastBooking, bookings.get(2));
+        assertEquals(ACTIVE, booking.getPhase());
+        assertEquals(FINISHED, lastBooking.getPhase());
+        assertEquals(UPCOMING, nextBooking.getPhase());
     }
 
     @Test
-    @DisplayName("Получение всех бронирований хозяином вещи в убывании даты начала")
-    void findAllByOwnerIdOrderByStartDateDesc() {
-        List<Booking> bookings = bookingRepository
-                .findAllByOwnerIdOrderByStartDateDesc(user.getId(), Pageable.ofSize(10)).getContent();
-        assertEquals(3, bookings.size());
-        assertEquals(nextBooking, bookings.get(0));
-        assertEquals(booking, bookings.get(1));
-        assertEquals(lastBooking, bookings.get(2));
+    @DisplayName("Перевод фазы по id пропускает уже переведенные бронирования")
+    void updatePhase() {
+        entityManager.flush();
+
+        int updated = bookingRepository.updatePhase(List.of(booking.getId(), lastBooking.getId()), FINISHED,
+                List.of(UPCOMING, ACTIVE));
+        entityManager.clear();
+
+        assertEquals(1, updated);
+        assertEquals(FINISHED, bookingRepository.findById(booking.getId()).orElseThrow().getPhase());
     }
 
     @Test
-    @DisplayName("Получение всех прошедших бронирований владельцем вещи")
-    void findAllByOwnerIdAndEndDateBefore() {
-        List<Booking> bookings = bookingRepository
-                .findAllByOwnerIdAndEndDateBefore(user.getId(), Pageable.ofSize(10)).getContent();
+    @DisplayName("Догоняющий запрос переводит бронирования с прошедшими сроками")
+    void finishEndedAndActivateStarted() {
+        entityManager.flush();
+        LocalDateTime later = LocalDateTime.now().plusMinutes(5);
 
-        assertEquals(1, bookings.size());
-        assertEquals(lastBooking, bookings.get(0));
+        int finished = bookingRepository.finishEnded(later);
+        int activated = bookingRepository.activateStarted(later);
+        entityManager.clear();
+
+        assertEquals(1, finished);
+        assertEquals(1, activated);
+        assertEquals(FINISHED, bookingRepository.findById(booking.getId()).orElseThrow().getPhase());
+        assertEquals(ACTIVE, bookingRepository.findById(nextBooking.getId()).orElseThrow().getPhase());
     }
 
     @Test
-    @DisplayName("Получение всех будущих бронирований владельцем вещи")
-    void findAllByOwnerIdAndStartDateAfter() {
-        List<Booking> bookings = bookingRepository
-                .findAllByOwnerIdAndStartDateAfter(user.getId(), Pageable.ofSize(10)).getContent();
-        assertEquals(1, bookings.size());
-        assertEquals(nextBooking, bookings.get(0));
+    @DisplayName("Сроки начала и конца бронирований в окне")
+    void findStartsAndEndsBetween() {
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<BookingInstantView> starts = bookingRepository.findStartsBetween(now, now.plusMinutes(5));
+        List<BookingInstantView> ends = bookingRepository.findEndsBetween(now, now.plusMinutes(5));
+
+        assertEquals(1, starts.size());
+        assertEquals(nextBooking.getId(), starts.get(0).getId());
+        assertEquals(stored(nextBooking.getStart()), starts.get(0).getInstant());
+        assertEquals(1, ends.size());
+        assertEquals(booking.getId(), ends.get(0).getId());
     }
 
     @Test
-    @DisplayName("Получение всех текущих бронирований владельцем вещи")
-    void findAllByOwnerIdAndDateBeforeAndDateAfter() {
-        List<Booking> bookings = bookingRepository
-                .findAllByOwnerIdAndDateBeforeAndDateAfter(user.getId(), Pageable.ofSize(10)).getContent();
-        assertEquals(1, bookings.size());
-        assertEquals(booking, bookings.get(0));
+    @DisplayName("Получение занятых периодов вещи, отсортированных по началу")
+    void findActiveIntervalsByItemId() {
+        lastBooking.setStatus(REJECTED);
+
+        List<BookingIntervalDto> intervals = bookingRepository.findActiveIntervalsByItemId(item.getId());
+
+        assertEquals(2, intervals.size());
+        assertEquals(booking.getId(), intervals.get(0).getId());
+        assertEquals(nextBooking.getId(), intervals.get(1).getId());
+        assertEquals(stored(nextBooking.getStart()), intervals.get(1).getStart());
     }
 
     @Test
-    @DisplayName("Получение всех бронирований владельцем вещи с определенным статусом")
-    void findAllByOwnerIdAndStatusOrderByStartDateDesc() {
-        List<Booking> bookings = bookingRepository
-                .findAllByOwnerIdAndStatusOrderByStartDateDesc(user.getId(), APPROVED,
-                        Pageable.ofSize(10)).getContent();
-        assertEquals(3, bookings.size());
-        assertEquals(nextBooking, bookings.get(0));
-        assertEquals(booking, bookings.get(1));
-        assertEquals(lastBooking, bookings.get(2));
+    @DisplayName("Последнее бронирование вещи с 10 000 бронирований не загружает историю бронирований")
+    void findLastBookingDoesNotLoadBookingHistory() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> history = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            history.add(new Booking(0, now.minusHours(i + 2), now.minusHours(i + 1), item, otherUser, APPROVED));
+        }
+        bookingRepository.saveAll(history);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<LastBookingDto> lastBookings = bookingRepository.findLastBooking(item.getId(), PageRequest.of(0, 1));
+        List<ItemBookingSummaryView> summaries = summaryRepository
+                .computeByItemIdIn(List.of(item.getId()), LocalDateTime.now());
+
+        assertEquals(1, lastBookings.size());
+        assertEquals(booking.getId(), lastBookings.get(0).getId());
+        assertEquals(1, summaries.size());
+        assertEquals(booking.getId(), summaries.get(0).getLastBookingId());
+        assertEquals(0, statistics.getEntityLoadCount());
     }
 
     @Test
-    @DisplayName("Получение последнего бронирования вещи")
-    void findFirstByItemIdAndEndDateBefore() {
-        List<Booking> bookings = bookingRepository
-                .findFirstByItemIdAndEndDateBefore(item.getId());
+    @DisplayName("Постраничный обход бронирований арендатора по ключу (start, id)")
+    void findBookingsAfterBooker() {
+        entityManager.flush();
+        entityManager.clear();
 
-        assertEquals(2, bookings.size());
-        assertEquals(booking, bookings.get(0));
-        assertEquals(lastBooking, bookings.get(1));
+        List<Booking> firstPage = bookingRepository
+                .findBookingsAfter(BookingRole.BOOKER, otherUser.getId(), BookingState.ALL, null, 2);
+        Booking last = firstPage.get(1);
+        List<Booking> secondPage = bookingRepository.findBookingsAfter(BookingRole.BOOKER, otherUser.getId(),
+                BookingState.ALL, SeekCursor.of(last.getStart(), last.getId()), 2);
+
+        assertEquals(List.of(nextBooking.getId(), booking.getId()), ids(firstPage));
+        assertEquals(List.of(lastBooking.getId()), ids(secondPage));
     }
 
     @Test
-    @DisplayName("Получение будущих бронирований со статусом APPROVED")
-    void findFirstByItemIdAndStartDateAfter() {
-        List<Booking> bookings = bookingRepository
-                .findFirstByItemIdAndStartDateAfter(item.getId());
+    @DisplayName("Постраничный обход бронирований владельца с фильтром по состоянию")
+    void findBookingsAfterOwner() {
+        entityManager.flush();
+        entityManager.clear();
 
-        assertEquals(1, bookings.size());
-        assertEquals(nextBooking, bookings.get(0));
+        List<Booking> future = bookingRepository
+                .findBookingsAfter(BookingRole.OWNER, user.getId(), BookingState.FUTURE, null, 10);
+        Booking current = bookingRepository
+                .findBookingsAfter(BookingRole.OWNER, user.getId(), BookingState.CURRENT, null, 10).get(0);
+        List<Booking> afterCurrent = bookingRepository.findBookingsAfter(BookingRole.OWNER, user.getId(),
+                BookingState.ALL, SeekCursor.of(current.getStart(), current.getId()), 10);
+
+        assertEquals(List.of(nextBooking.getId()), ids(future));
+        assertEquals(booking.getId(), current.getId());
+        assertEquals(List.of(lastBooking.getId()), ids(afterCurrent));
+        assertTrue(bookingRepository
+                .findBookingsAfter(BookingRole.OWNER, otherUser.getId(), BookingState.ALL, null, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Бронирования с одинаковым началом не теряются на границе страниц")
+    void findBookingsAfterSameStart() {
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 12, 0);
+        booking.setStart(start);
+        lastBooking.setStart(start);
+        long newer = Math.max(booking.getId(), lastBooking.getId());
+        long older = Math.min(booking.getId(), lastBooking.getId());
+
+        List<Booking> firstPage = bookingRepository.findBookingsAfter(BookingRole.BOOKER, otherUser.getId(),
+                BookingState.ALL, SeekCursor.of(start.plusDays(1), 0), 1);
+        List<Booking> secondPage = bookingRepository.findBookingsAfter(BookingRole.BOOKER, otherUser.getId(),
+                BookingState.ALL, SeekCursor.of(start, newer), 1);
+
+        assertEquals(List.of(newer), ids(firstPage));
+        assertEquals(List.of(older), ids(secondPage));
     }
 
     @Test
-    @DisplayName("Получение бронирований вещи пользователем")
-    void findAllByItemIdAndBookerId() {
+    @DisplayName("Страница по ключу загружается одним запросом без подсчета записей")
+    void findBookingsAfterSingleStatement() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
         List<Booking> bookings = bookingRepository
-                .findAllByItemIdAndBookerId(item.getId(), otherUser.getId());
+                .findBookingsAfter(BookingRole.OWNER, user.getId(), BookingState.ALL, null, 10);
+        bookings.forEach(b -> {
+            assertEquals("Молоток", b.getItem().getName());
+            assertEquals(otherUser.getEmail(), b.getBooker().getEmail());
+        });
+
         assertEquals(3, bookings.size());
-        assertEquals(nextBooking, bookings.get(2));
-        assertEquals(booking, bookings.get(0));
-        assertEquals(lastBooking, bookings.get(1));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Подсчет бронирований вместе с проверкой существования пользователя")
+    void countBookings() {
+        entityManager.flush();
+
+        assertEquals(Optional.of(3L), bookingRepository.countBookings(BookingRole.BOOKER, otherUser.getId(),
+                BookingState.ALL));
+        assertEquals(Optional.of(1L), bookingRepository.countBookings(BookingRole.BOOKER, otherUser.getId(),
+                BookingState.PAST));
+        assertEquals(Optional.of(3L), bookingRepository.countBookings(BookingRole.OWNER, user.getId(),
+                BookingState.ALL));
+        assertEquals(Optional.of(0L), bookingRepository.countBookings(BookingRole.OWNER, user.getId(),
+                BookingState.WAITING));
+        assertEquals(Optional.of(0L), bookingRepository.countBookings(BookingRole.BOOKER, user.getId(),
+                BookingState.ALL));
+        assertEquals(Optional.of(0L), bookingRepository.countBookings(BookingRole.OWNER, otherUser.getId(),
+                BookingState.ALL));
+        assertEquals(Optional.empty(), bookingRepository.countBookings(BookingRole.BOOKER, 999L,
+                BookingState.ALL));
+        assertEquals(Optional.empty(), bookingRepository.countBookings(BookingRole.OWNER, 999L,
+                BookingState.ALL));
+    }
+
+    @Test
+    @DisplayName("Выборки и подсчет по статусу, включая одобренные бронирования")
+    void findBookingsPageAndCountByStatus() {
+        nextBooking.setStatus(REJECTED);
+        entityManager.flush();
+
+        assertEquals(List.of(booking.getId(), lastBooking.getId()), ids(bookingRepository
+                .findBookingsPage(BookingRole.OWNER, user.getId(), BookingState.APPROVED, 0, 10)));
+        assertEquals(List.of(nextBooking.getId()), ids(bookingRepository
+                .findBookingsPage(BookingRole.BOOKER, otherUser.getId(), BookingState.REJECTED, 0, 10)));
+        assertEquals(List.of(booking.getId()), ids(bookingRepository
+                .findBookingsPage(BookingRole.OWNER, user.getId(), BookingState.CURRENT, 0, 10)));
+        assertEquals(Optional.of(2L), bookingRepository.countBookings(BookingRole.BOOKER, otherUser.getId(),
+                BookingState.APPROVED));
+        assertEquals(Optional.of(1L), bookingRepository.countBookings(BookingRole.OWNER, user.getId(),
+                BookingState.REJECTED));
+    }
+
+    private List<Long> ids(List<Booking> bookings) {
+        return bookings.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+    }
 
+    /**
+     * Время в том виде, в каком его вернет база: TIMESTAMP округляет наносекунды до микросекунд.
+     */
+    private static LocalDateTime stored(LocalDateTime time) {
+        return time.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
     }
 }
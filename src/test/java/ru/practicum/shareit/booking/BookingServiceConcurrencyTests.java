@@ -0,0 +1,97 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mappers.ItemMapperImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingServiceConcurrencyTests {
+
+    private static final int ATTEMPTS = 500;
+    private static final int THREADS = 32;
+
+    private final BookingServiceImpl bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemMapperImpl itemMapper;
+
+    @Test
+    @DisplayName("Из 500 параллельных пересекающихся бронирований создается ровно одно")
+    void createBookingConcurrentOverlappingRequestsOnlyOneCreated() throws Exception {
+        User owner = userRepository.save(UserMapper.INSTANCE.toUser(new UserDto(null, "Owner", "owner@mail.com")));
+        User booker = userRepository.save(UserMapper.INSTANCE.toUser(new UserDto(null, "Booker", "booker@mail.com")));
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Палатка");
+        itemDto.setDescription("Четырехместная палатка");
+        itemDto.setAvailable(true);
+        Item item = itemMapper.toItem(itemDto);
+        item.setUser(owner);
+        long itemId = itemRepository.save(item).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            BookingDto bookingDto = new BookingDto();
+            bookingDto.setItemId(itemId);
+            bookingDto.setStart(start.plusMinutes(i));
+            bookingDto.setEnd(start.plusDays(2));
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                try {
+                    bookingService.createBooking(booker.getId(), bookingDto);
+                    return true;
+                } catch (BookingOverlapException e) {
+                    return false;
+                }
+            }));
+        }
+        startSignal.countDown();
+
+        int created = 0;
+        try {
+            for (Future<Boolean> result : results) {
+                if (result.get(1, TimeUnit.MINUTES)) {
+                    created++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, created);
+        assertEquals(1, bookingRepository.count());
+    }
+}
@@ -4,38 +4,56 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityCache;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingReplyDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.exception.BookingException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
 import ru.practicum.shareit.booking.mappers.BookingMapper;
+import ru.practicum.shareit.booking.overlap.BookingOverlapGuard;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.phase.BookingPhaseService;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mappers.ItemMapperImpl;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorException;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.SeekCursor;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -51,7 +69,19 @@ public class BookingServiceImplTests {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserExistenceValidator userExistenceValidator;
+    @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ItemService itemService;
+    @Mock
+    private ItemAvailabilityCache availabilityCache;
+    @Mock
+    private ItemBookingSummaryService bookingSummaryService;
+    @Mock
+    private BookingPhaseService bookingPhaseService;
+    @Mock
+    private BookingOverlapGuard overlapGuard;
 
 
     private UserDto userDto;
@@ -104,6 +134,131 @@ public class BookingServiceImplTests {
                 () -> bookingService.createBooking(user.getId(), bookingDto));
     }
 
+    @Test
+    @DisplayName("Создание бронирования на занятый период")
+    void createBookingPeriodOverlapsException() {
+        User user = UserMapper.INSTANCE.toUser(userDto);
+        User otherUser = UserMapper.INSTANCE.toUser(otherUserDto);
+        Item item = itemMapper.toItem(itemDto);
+        item.setUser(user);
+        when(userRepository.findById(otherUser.getId())).thenReturn(Optional.of(otherUser));
+        when(itemService.ifItemExistReturnItem(item.getId())).thenReturn(item);
+        when(bookingRepository.existsOverlapping(item.getId(), bookingDto.getStart(), bookingDto.getEnd()))
+                .thenReturn(true);
+
+        assertThrows(BookingOverlapException.class,
+                () -> bookingService.createBooking(otherUser.getId(), bookingDto));
+        verify(overlapGuard, times(1)).beforeOverlapCheck(item.getId());
+        verify(bookingRepository, never()).saveAndFlush(any());
+        verify(bookingSummaryService, never()).refreshAll(any());
+    }
+
+    @Test
+    @DisplayName("Создание бронирования обновляет сводку бронирований вещи")
+    void createBookingBookingSummaryRefreshed() {
+        User user = UserMapper.INSTANCE.toUser(userDto);
+        User otherUser = UserMapper.INSTANCE.toUser(otherUserDto);
+        Item item = itemMapper.toItem(itemDto);
+        item.setUser(user);
+        when(userRepository.findById(otherUser.getId())).thenReturn(Optional.of(otherUser));
+        when(itemService.ifItemExistReturnItem(item.getId())).thenReturn(item);
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        bookingService.createBooking(otherUser.getId(), bookingDto);
+
+        InOrder inOrder = inOrder(overlapGuard, bookingRepository, bookingSummaryService);
+        inOrder.verify(overlapGuard).beforeOverlapCheck(item.getId());
+        inOrder.verify(bookingRepository).saveAndFlush(any(Booking.class));
+        inOrder.verify(bookingSummaryService).refreshAll(List.of(item.getId()));
+    }
+
+    @Test
+    @DisplayName("Сроки созданного бронирования ставятся в колесо фаз")
+    void createBookingPhaseScheduled() {
+        User user = UserMapper.INSTANCE.toUser(userDto);
+        User otherUser = UserMapper.INSTANCE.toUser(otherUserDto);
+        Item item = itemMapper.toItem(itemDto);
+        item.setUser(user);
+        when(userRepository.findById(otherUser.getId())).thenReturn(Optional.of(otherUser));
+        when(itemService.ifItemExistReturnItem(item.getId())).thenReturn(item);
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        bookingService.createBooking(otherUser.getId(), bookingDto);
+
+        InOrder inOrder = inOrder(bookingRepository, bookingPhaseService);
+        inOrder.verify(bookingRepository).saveAndFlush(any(Booking.class));
+        inOrder.verify(bookingPhaseService).schedule(any(Booking.class));
+    }
+
+    @Test
+    @DisplayName("Подтверждение бронирования обновляет сводку под блокировкой вещи")
+    void approvingBookingApprovedBookingSummaryRefreshed() {
+        User user = UserMapper.INSTANCE.toUser(userDto);
+        Item item = itemMapper.toItem(itemDto);
+        item.setUser(user);
+        Booking booking = BookingMapper.INSTANCE.toBooking(bookingDto);
+        booking.setItem(item);
+        booking.setBooker(UserMapper.INSTANCE.toUser(otherUserDto));
+        booking.setStatus(WAITING);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(itemService.ifItemExistReturnItem(item.getId())).thenReturn(item);
+
+        bookingService.approvingBooking(user.getId(), booking.getId(), true);
+
+        assertEquals(BookingStatus.APPROVED, booking.getStatus());
+        InOrder inOrder = inOrder(itemRepository, bookingSummaryService);
+        inOrder.verify(itemRepository).lockById(item.getId());
+        inOrder.verify(bookingSummaryService).refresh(item.getId());
+    }
+
+    @Test
+    @DisplayName("Нарушение ограничения на пересечение броней при вставке дает BookingOverlapException")
+    void createBookingPeriodExclusionViolatedOverlapException() {
+        User booker = stubBookableItem();
+        SQLException exclusion = new SQLException(
+                "ERROR: conflicting key value violates exclusion constraint \"ex_booking_item_period\"", "23P01");
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute", exclusion));
+
+        assertThrows(BookingOverlapException.class, () -> bookingService.createBooking(booker.getId(), bookingDto));
+        verify(availabilityCache, never()).onBooked(anyLong(), anyLong(), any(), any());
+        verify(bookingSummaryService, never()).refreshAll(any());
+    }
+
+    @Test
+    @DisplayName("Другие нарушения целостности при вставке не выдаются за пересечение броней")
+    void createBookingOtherIntegrityViolationPropagated() {
+        User booker = stubBookableItem();
+        SQLException notNull = new SQLException("ERROR: null value in column \"status\"", "23502");
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute", notNull));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> bookingService.createBooking(booker.getId(), bookingDto));
+    }
+
+    @Test
+    @DisplayName("Отклонение бронирования не меняет сводку бронирований")
+    void approvingBookingRejectedBookingSummaryNotRefreshed() {
+        User user = UserMapper.INSTANCE.toUser(userDto);
+        Item item = itemMapper.toItem(itemDto);
+        item.setUser(user);
+        Booking booking = BookingMapper.INSTANCE.toBooking(bookingDto);
+        booking.setItem(item);
+        booking.setBooker(UserMapper.INSTANCE.toUser(otherUserDto));
+        booking.setStatus(WAITING);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(itemService.ifItemExistReturnItem(item.getId())).thenReturn(item);
+
+        bookingService.approvingBooking(user.getId(), booking.getId(), false);
+
+        assertEquals(BookingStatus.REJECTED, booking.getStatus());
+        verify(availabilityCache).onReleased(item.getId(), booking.getId());
+        verify(bookingSummaryService, never()).refresh(anyLong());
+    }
+
     @Test
     @DisplayName("Одобрение бронирования, когда брони не существует")
     void approvingBookingBookingNotExistException() {
@@ -124,7 +279,6 @@ public class BookingServiceImplTests {
         booking.setItem(item);
 
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
         BookingReplyDto bookingReplyDto =
@@ -136,7 +290,7 @@ public class BookingServiceImplTests {
         assertEquals(booking.getItem().getName(), bookingReplyDto.getItem().getName());
         verify(bookingRepository, times(1)).findById(any());
         verify(itemRepository, times(1)).findById(anyLong());
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userExistenceValidator).validate(user.getId());
     }
 
     @Test
@@ -150,7 +304,6 @@ public class BookingServiceImplTests {
         booking.setBooker(UserMapper.INSTANCE.toUser(otherUserDto));
 
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
         assertThrows(BookingNotFoundException.class,
@@ -167,7 +320,7 @@ public class BookingServiceImplTests {
 
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        doThrow(UserNotFoundException.class).when(userExistenceValidator).validate(anyLong());
 
         assertThrows(UserNotFoundException.class,
                 () -> bookingService.getBooking(item.getUser().getId(), booking.getId()));
@@ -197,11 +350,11 @@ public class BookingServiceImplTests {
         booking.setBooker(otherUser);
         booking.setStatus(WAITING);
         List<Booking> bookings = List.of(booking);
-        Pageable pageable = PageRequest.of(from, size);
 
-        when(userRepository.findById(otherUser.getId())).thenReturn(Optional.of(otherUser));
-        when(bookingRepository.findAllByBookerIdOrderByStartDateDesc(otherUser.getId(), pageable))
-                .thenReturn(new PageImpl<>(bookings, pageable, bookings.size()));
+        when(bookingRepository.countBookings(BookingRole.BOOKER, otherUser.getId(), BookingState.ALL))
+                .thenReturn(Optional.of((long) bookings.size()));
+        when(bookingRepository.findBookingsPage(BookingRole.BOOKER, otherUser.getId(), BookingState.ALL, 0, size))
+                .thenReturn(bookings);
 
         List<BookingDto> bookingDtos = bookingService.getUserAllBooking(otherUserDto.getId(), state, from, size);
 
@@ -215,10 +368,12 @@ public class BookingServiceImplTests {
         int from = 0;
         int size = 10;
 
-        when(userRepository.findById(userDto.getId())).thenReturn(Optional.empty());
+        when(bookingRepository.countBookings(BookingRole.BOOKER, userDto.getId(), BookingState.ALL))
+                .thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class,
                 () -> bookingService.getUserAllBooking(userDto.getId(), state, from, size));
+        verify(bookingRepository, never()).findBookingsPage(any(), anyLong(), any(), anyLong(), anyInt());
     }
 
     @Test
@@ -236,17 +391,49 @@ public class BookingServiceImplTests {
         booking.setBooker(otherUser);
         booking.setStatus(WAITING);
         List<Booking> bookings = List.of(booking);
-        Pageable pageable = PageRequest.of(from, size);
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByOwnerIdOrderByStartDateDesc(user.getId(), pageable))
-                .thenReturn(new PageImpl<>(bookings, pageable, bookings.size()));
+        when(bookingRepository.findBookingsPage(BookingRole.OWNER, user.getId(), BookingState.ALL, 0, size))
+                .thenReturn(bookings);
 
         List<BookingDto> bookingDtos = bookingService.getAllBookingByOwner(user.getId(), state, from, size);
 
         assertEquals(bookings.size(), bookingDtos.size());
     }
 
+    @Test
+    @DisplayName("Прошедшие бронирования владельца запрашиваются состоянием PAST со смещением страницы")
+    void getAllBookingByOwnerPastStateQueried() {
+        int from = 25;
+        int size = 10;
+        User user = UserMapper.INSTANCE.toUser(userDto);
+        when(bookingRepository.findBookingsPage(BookingRole.OWNER, user.getId(), BookingState.PAST, 20, size))
+                .thenReturn(List.of());
+
+        List<BookingDto> bookingDtos = bookingService.getAllBookingByOwner(user.getId(), "PAST", from, size);
+
+        assertEquals(0, bookingDtos.size());
+    }
+
+    @Test
+    @DisplayName("Одобренные бронирования владельца запрашиваются состоянием APPROVED")
+    void getAllBookingByOwnerApprovedStateQueried() {
+        int size = 10;
+        User user = UserMapper.INSTANCE.toUser(userDto);
+        User otherUser = UserMapper.INSTANCE.toUser(otherUserDto);
+        Item item = itemMapper.toItem(itemDto);
+        item.setUser(user);
+        Booking booking = BookingMapper.INSTANCE.toBooking(bookingDto);
+        booking.setItem(item);
+        booking.setBooker(otherUser);
+        booking.setStatus(BookingStatus.APPROVED);
+        when(bookingRepository.findBookingsPage(BookingRole.OWNER, user.getId(), BookingState.APPROVED, 0, size))
+                .thenReturn(List.of(booking));
+
+        List<BookingDto> bookingDtos = bookingService.getAllBookingByOwner(user.getId(), "APPROVED", 0, size);
+
+        assertEquals(1, bookingDtos.size());
+    }
+
     @Test
     @DisplayName("Получение списка бронирований когда пользователя не существует")
     void getAllBookingByOwnerUserNotExistsException() {
@@ -254,7 +441,7 @@ public class BookingServiceImplTests {
         int from = 0;
         int size = 10;
 
-        when(userRepository.findById(userDto.getId())).thenReturn(Optional.empty());
+        doThrow(UserNotFoundException.class).when(userExistenceValidator).validate(userDto.getId());
 
         assertThrows(UserNotFoundException.class,
                 () -> bookingService.getAllBookingByOwner(userDto.getId(), state, from, size));
@@ -268,9 +455,112 @@ public class BookingServiceImplTests {
         int size = 10;
         User user = UserMapper.INSTANCE.toUser(userDto);
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
 
         assertThrows(BookingException.class,
                 () -> bookingService.getAllBookingByOwner(userDto.getId(), state, from, size));
     }
+
+    @Test
+    @DisplayName("Получение страницы бронирований пользователя по курсору")
+    void getUserBookingsAfterNextCursorReturned() {
+        User user = UserMapper.INSTANCE.toUser(userDto);
+        User otherUser = UserMapper.INSTANCE.toUser(otherUserDto);
+        Item item = itemMapper.toItem(itemDto);
+        item.setUser(user);
+        List<Booking> bookings = List.of(
+                BookingMapper.INSTANCE.toBooking(nextBookingDto),
+                BookingMapper.INSTANCE.toBooking(bookingDto),
+                BookingMapper.INSTANCE.toBooking(lastBookingDto));
+        bookings.forEach(booking -> {
+            booking.setItem(item);
+            booking.setBooker(otherUser);
+            booking.setStatus(WAITING);
+        });
+        SeekCursor after = SeekCursor.of(LocalDateTime.now().plusDays(1), 10L);
+
+        when(bookingRepository.findBookingsAfter(BookingRole.BOOKER, otherUser.getId(), BookingState.ALL, after, 3))
+                .thenReturn(bookings);
+
+        CursorPage<BookingDto> page = bookingService
+                .getUserBookingsAfter(otherUser.getId(), "ALL", after.encode(), 2);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(SeekCursor.of(bookingDto.getStart(), bookingDto.getId()),
+                SeekCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    @DisplayName("Последняя страница бронирований владельца не содержит курсора")
+    void getOwnerBookingsAfterLastPageWithoutCursor() {
+        User user = UserMapper.INSTANCE.toUser(userDto);
+        User otherUser = UserMapper.INSTANCE.toUser(otherUserDto);
+        Item item = itemMapper.toItem(itemDto);
+        item.setUser(user);
+        Booking booking = BookingMapper.INSTANCE.toBooking(bookingDto);
+        booking.setItem(item);
+        booking.setBooker(otherUser);
+        booking.setStatus(WAITING);
+
+        when(bookingRepository.findBookingsAfter(BookingRole.OWNER, user.getId(), BookingState.WAITING, null, 11))
+                .thenReturn(List.of(booking));
+
+        CursorPage<BookingDto> page = bookingService.getOwnerBookingsAfter(user.getId(), "WAITING", "", 10);
+
+        assertEquals(1, page.getContent().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Получение страницы бронирований с некорректным курсором")
+    void getUserBookingsAfterInvalidCursorException() {
+        User user = UserMapper.INSTANCE.toUser(userDto);
+
+
+        assertThrows(CursorException.class,
+                () -> bookingService.getUserBookingsAfter(user.getId(), "ALL", "не курсор", 10));
+    }
+
+    @Test
+    @DisplayName("Страница за концом списка бронирований заменяется последней непустой")
+    void getUserAllBookingFromBeyondLastPageClamped() {
+        Booking booking = BookingMapper.INSTANCE.toBooking(bookingDto);
+        Item item = itemMapper.toItem(itemDto);
+        item.setUser(UserMapper.INSTANCE.toUser(userDto));
+        booking.setItem(item);
+        booking.setBooker(UserMapper.INSTANCE.toUser(otherUserDto));
+        booking.setStatus(WAITING);
+
+        when(bookingRepository.countBookings(BookingRole.BOOKER, otherUserDto.getId(), BookingState.ALL))
+                .thenReturn(Optional.of(25L));
+        when(bookingRepository.findBookingsPage(BookingRole.BOOKER, otherUserDto.getId(), BookingState.ALL, 20, 10))
+                .thenReturn(List.of(booking));
+
+        List<BookingDto> bookingDtos = bookingService.getUserAllBooking(otherUserDto.getId(), "ALL", 100_000, 10);
+
+        assertEquals(1, bookingDtos.size());
+        verify(userExistenceValidator, never()).validate(anyLong());
+    }
+
+    @Test
+    @DisplayName("Получение списка бронирований пользователя без бронирований")
+    void getUserAllBookingNoBookingsException() {
+        User user = UserMapper.INSTANCE.toUser(userDto);
+        when(bookingRepository.countBookings(BookingRole.BOOKER, user.getId(), BookingState.ALL))
+                .thenReturn(Optional.of(0L));
+
+        BookingException exception = assertThrows(BookingException.class,
+                () -> bookingService.getUserAllBooking(user.getId(), "ALL", 0, 10));
+        assertEquals("Бронирований нет", exception.getMessage());
+        verify(userExistenceValidator, never()).validate(anyLong());
+    }
+
+    private User stubBookableItem() {
+        User user = UserMapper.INSTANCE.toUser(userDto);
+        User otherUser = UserMapper.INSTANCE.toUser(otherUserDto);
+        Item item = itemMapper.toItem(itemDto);
+        item.setUser(user);
+        when(userRepository.findById(otherUser.getId())).thenReturn(Optional.of(otherUser));
+        when(itemService.ifItemExistReturnItem(item.getId())).thenReturn(item);
+        return otherUser;
+    }
 }
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -27,17 +29,21 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static ru.practicum.shareit.booking.enums.BookingStatus.WAITING;
 
 @Transactional
 @SpringBootTest(
-        properties = "db.name=test",
+        properties = {"db.name=test", "spring.jpa.properties.hibernate.generate_statistics=true"},
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -49,6 +55,7 @@ public class BookingServiceIntegrationTests {
     private final BookingServiceImpl bookingService;
     private final BookingRepository bookingRepository;
     private final ItemMapperImpl itemMapper;
+    private final EntityManagerFactory entityManagerFactory;
 
     private final ItemDto itemDto = new ItemDto();
     private final BookingDto bookingDto = new BookingDto();
@@ -593,4 +600,96 @@ public class BookingServiceIntegrationTests {
 
         assertEquals(1, bookingDtoList.size());
     }
+
+    @Test
+    @DisplayName("Страница далеко за концом списка бронирований загружается не более чем двумя запросами")
+    void getUserAllBookingFromFarBeyondLastPageTwoStatements() {
+        User user = userRepository.save(UserMapper.INSTANCE.toUser(userDto));
+        User otherUser = userRepository.save(UserMapper.INSTANCE.toUser(otherUserDto));
+        Item item = itemRepository.save(itemMapper.toItem(itemDto));
+        item.setUser(user);
+        Booking booking = bookingRepository.save(BookingMapper.INSTANCE.toBooking(bookingDto));
+        Booking lastBooking = bookingRepository.save(BookingMapper.INSTANCE.toBooking(lastBookingDto));
+        Booking nextBooking = bookingRepository.save(BookingMapper.INSTANCE.toBooking(nextBookingDto));
+        for (Booking b : List.of(booking, lastBooking, nextBooking)) {
+            b.setItem(item);
+            b.setBooker(otherUser);
+            b.setStatus(WAITING);
+        }
+        bookingRepository.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingDto> bookingDtoList = bookingService.getUserAllBooking(otherUser.getId(), "ALL", 100_000, 2);
+
+        assertEquals(1, bookingDtoList.size());
+        assertEquals(lastBooking.getId(), bookingDtoList.get(0).getId());
+        assertTrue(statistics.getPrepareStatementCount() <= 2);
+    }
+
+    @Test
+    @DisplayName("Список бронирований неизвестного пользователя: проверка пользователя и подсчет одним запросом")
+    void getUserAllBookingUnknownUserSingleStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThrows(UserNotFoundException.class,
+                () -> bookingService.getUserAllBooking(999L, "ALL", 0, 10));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Список бронирований пользователя без бронирований: проверка пользователя и подсчет одним запросом")
+    void getUserAllBookingNoBookingsSingleStatement() {
+        User user = userRepository.save(UserMapper.INSTANCE.toUser(userDto));
+        User otherUser = userRepository.save(UserMapper.INSTANCE.toUser(otherUserDto));
+        Item item = itemRepository.save(itemMapper.toItem(itemDto));
+        item.setUser(user);
+        Booking booking = bookingRepository.save(BookingMapper.INSTANCE.toBooking(lastBookingDto));
+        booking.setItem(item);
+        booking.setBooker(otherUser);
+        booking.setStatus(WAITING);
+        bookingRepository.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BookingException exception = assertThrows(BookingException.class,
+                () -> bookingService.getUserAllBooking(otherUser.getId(), "FUTURE", 0, 10));
+        assertEquals("Бронирований нет", exception.getMessage());
+        assertThrows(BookingException.class,
+                () -> bookingService.getUserAllBooking(user.getId(), "ALL", 0, 10));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Выгрузка всех бронирований вещей владельца от новых к старым")
+    void exportOwnerBookingsAllBookingsExported() {
+        User user = userRepository.save(UserMapper.INSTANCE.toUser(userDto));
+        User otherUser = userRepository.save(UserMapper.INSTANCE.toUser(otherUserDto));
+        Item item = itemRepository.save(itemMapper.toItem(itemDto));
+        item.setUser(user);
+        Booking booking = bookingRepository.save(BookingMapper.INSTANCE.toBooking(bookingDto));
+        Booking lastBooking = bookingRepository.save(BookingMapper.INSTANCE.toBooking(lastBookingDto));
+        Booking nextBooking = bookingRepository.save(BookingMapper.INSTANCE.toBooking(nextBookingDto));
+        for (Booking b : List.of(booking, lastBooking, nextBooking)) {
+            b.setItem(item);
+            b.setBooker(otherUser);
+            b.setStatus(WAITING);
+        }
+        bookingRepository.flush();
+        List<BookingDto> exported = new ArrayList<>();
+
+        int count = bookingService.exportOwnerBookings(user.getId(), exported::add);
+
+        assertEquals(3, count);
+        assertEquals(List.of(nextBooking.getId(), booking.getId(), lastBooking.getId()),
+                exported.stream().map(BookingDto::getId).collect(Collectors.toList()));
+        assertEquals(0, bookingService.exportOwnerBookings(otherUser.getId(), exported::add));
+    }
+
+    @Test
+    @DisplayName("Выгрузка бронирований несуществующего владельца")
+    void checkUserExistsUserNotFoundException() {
+        assertThrows(UserNotFoundException.class, () -> bookingService.checkUserExists(100L));
+    }
 }
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.exeption.ItemNotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemAvailabilityCacheIntegrationTests {
+
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final UserService userService;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    @Test
+    @DisplayName("Удаление пользователя убирает из кэша его вещи и периоды его бронирований чужих вещей")
+    void deleteUserAvailabilityEvicted() {
+        User owner = userRepository.save(new User(null, "owner@mail.com", "Owner"));
+        User user = userRepository.save(new User(null, "user@mail.com", "User"));
+        Item ownerItem = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        Item userItem = itemRepository.save(new Item(null, "Пила", "Ручная пила", true, user, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(1);
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(ownerItem.getId());
+        bookingDto.setStart(start);
+        bookingDto.setEnd(end);
+        bookingService.createBooking(user.getId(), bookingDto);
+
+        boolean bookedBeforeDelete = itemService.getAvailability(ownerItem.getId(), start, end).getAvailable();
+        boolean userItemBeforeDelete = itemService.getAvailability(userItem.getId(), start, end).getAvailable();
+        userService.deleteUser(user.getId());
+
+        assertFalse(bookedBeforeDelete);
+        assertTrue(userItemBeforeDelete);
+        assertTrue(itemService.getAvailability(ownerItem.getId(), start, end).getAvailable());
+        assertThrows(ItemNotFoundException.class,
+                () -> itemService.getAvailability(userItem.getId(), start, end));
+    }
+}
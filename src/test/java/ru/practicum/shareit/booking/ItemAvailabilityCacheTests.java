@@ -0,0 +1,158 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityCache;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.exeption.ItemNotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemAvailabilityCacheTests {
+
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemAvailabilityCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ItemAvailabilityCache(bookingRepository, itemRepository, 2);
+    }
+
+    @Test
+    @DisplayName("Периоды вещи загружаются один раз и проверяются на пересечение")
+    void isFreeLoadsItemOnce() {
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findActiveIntervalsByItemId(1L)).thenReturn(List.of(
+                new BookingIntervalDto(1L, base, base.plusDays(10)),
+                new BookingIntervalDto(2L, base.plusDays(2), base.plusDays(3)),
+                new BookingIntervalDto(3L, base.plusDays(20), base.plusDays(21))));
+
+        assertFalse(cache.isFree(1L, base.plusDays(5), base.plusDays(6)));
+        assertFalse(cache.isFree(1L, base.plusDays(20).minusHours(1), base.plusDays(20).plusHours(1)));
+        assertTrue(cache.isFree(1L, base.plusDays(10), base.plusDays(20)));
+        assertTrue(cache.isFree(1L, base.minusDays(1), base));
+        assertTrue(cache.isFree(1L, base.plusDays(21), base.plusDays(30)));
+
+        verify(itemRepository, times(1)).existsById(1L);
+        verify(bookingRepository, times(1)).findActiveIntervalsByItemId(1L);
+    }
+
+    @Test
+    @DisplayName("Новые и отклоненные бронирования обновляют закэшированные периоды")
+    void onBookedAndOnReleasedUpdateCachedItem() {
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findActiveIntervalsByItemId(1L)).thenReturn(List.of());
+        assertTrue(cache.isFree(1L, base, base.plusDays(1)));
+
+        cache.onBooked(1L, 5L, base.plusHours(6), base.plusHours(12));
+
+        assertFalse(cache.isFree(1L, base, base.plusDays(1)));
+        assertTrue(cache.isFree(1L, base.plusHours(12), base.plusDays(1)));
+
+        cache.onReleased(1L, 5L);
+
+        assertTrue(cache.isFree(1L, base, base.plusDays(1)));
+        verify(bookingRepository, times(1)).findActiveIntervalsByItemId(1L);
+    }
+
+    @Test
+    @DisplayName("Бронирование другой вещи во время загрузки не мешает закэшировать снимок")
+    void onBookedOtherItemDuringLoadSnapshotCached() {
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findActiveIntervalsByItemId(1L)).thenAnswer(invocation -> {
+            cache.onBooked(2L, 5L, base, base.plusDays(1));
+            return List.of();
+        });
+
+        assertTrue(cache.isFree(1L, base, base.plusDays(1)));
+        assertTrue(cache.isFree(1L, base, base.plusDays(1)));
+
+        verify(bookingRepository, times(1)).findActiveIntervalsByItemId(1L);
+    }
+
+    @Test
+    @DisplayName("Снимок вещи, забронированной во время его загрузки, не кэшируется")
+    void onBookedSameItemDuringLoadSnapshotNotCached() {
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findActiveIntervalsByItemId(1L))
+                .thenAnswer(invocation -> {
+                    cache.onBooked(1L, 5L, base, base.plusDays(1));
+                    return List.of();
+                })
+                .thenReturn(List.of(new BookingIntervalDto(5L, base, base.plusDays(1))));
+
+        assertTrue(cache.isFree(1L, base, base.plusDays(1)));
+        assertFalse(cache.isFree(1L, base, base.plusDays(1)));
+        assertFalse(cache.isFree(1L, base, base.plusDays(1)));
+
+        verify(bookingRepository, times(2)).findActiveIntervalsByItemId(1L);
+    }
+
+    @Test
+    @DisplayName("Закончившиеся бронирования отбрасываются при загрузке и при изменении вещи")
+    void endedIntervalsDropped() {
+        LocalDateTime now = LocalDateTime.now();
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findActiveIntervalsByItemId(1L)).thenReturn(List.of(
+                new BookingIntervalDto(1L, now.minusDays(3), now.minusDays(2)),
+                new BookingIntervalDto(2L, now.plusDays(1), now.plusDays(2))));
+
+        assertTrue(cache.isFree(1L, now.minusDays(3), now.minusDays(2)));
+        assertFalse(cache.isFree(1L, now.plusDays(1), now.plusDays(2)));
+
+        cache.onBooked(1L, 3L, now.minusDays(5), now.minusDays(4));
+
+        assertTrue(cache.isFree(1L, now.minusDays(5), now.minusDays(4)));
+        assertFalse(cache.isFree(1L, now.plusDays(1), now.plusDays(2)));
+        verify(bookingRepository, times(1)).findActiveIntervalsByItemId(1L);
+    }
+
+    @Test
+    @DisplayName("Давно не запрашиваемые вещи вытесняются из кэша")
+    void leastRecentlyUsedItemEvicted() {
+        for (long itemId = 1; itemId <= 3; itemId++) {
+            when(itemRepository.existsById(itemId)).thenReturn(true);
+            when(bookingRepository.findActiveIntervalsByItemId(itemId)).thenReturn(List.of());
+        }
+
+        cache.isFree(1L, base, base.plusDays(1));
+        cache.isFree(2L, base, base.plusDays(1));
+        cache.isFree(1L, base, base.plusDays(1));
+        cache.isFree(3L, base, base.plusDays(1));
+        cache.isFree(1L, base, base.plusDays(1));
+        cache.isFree(2L, base, base.plusDays(1));
+
+        verify(bookingRepository, times(1)).findActiveIntervalsByItemId(1L);
+        verify(bookingRepository, times(2)).findActiveIntervalsByItemId(2L);
+        verify(bookingRepository, times(1)).findActiveIntervalsByItemId(3L);
+    }
+
+    @Test
+    @DisplayName("Проверка доступности несуществующей вещи")
+    void isFreeItemNotExistException() {
+        when(itemRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ItemNotFoundException.class, () -> cache.isFree(1L, base, base.plusDays(1)));
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static ru.practicum.shareit.booking.enums.BookingStatus.APPROVED;
+import static ru.practicum.shareit.booking.enums.BookingStatus.REJECTED;
+import static ru.practicum.shareit.booking.enums.BookingStatus.WAITING;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemBookingSummaryRepositoryTests {
+
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    // с точностью столбца, чтобы сравнивать времена из базы с исходными
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    private User booker;
+    private Item item;
+    private Item otherItem;
+    private Booking lastBooking;
+    private Booking waitingBooking;
+    private Booking nextBooking;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(new User(null, "owner@mail.com", "Owner"));
+        booker = userRepository.save(new User(null, "booker@mail.com", "Booker"));
+        item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        otherItem = itemRepository.save(new Item(null, "Пила", "Ручная пила", true, owner, null));
+        bookingRepository.save(new Booking(0, now.minusDays(5), now.minusDays(4), item, booker, APPROVED));
+        lastBooking = bookingRepository.save(new Booking(0, now.minusDays(2), now.minusDays(1), item, booker,
+                REJECTED));
+        waitingBooking = bookingRepository.save(new Booking(0, now.plusDays(1), now.plusDays(2), item, booker,
+                WAITING));
+        nextBooking = bookingRepository.save(new Booking(0, now.plusDays(3), now.plusDays(4), item, booker,
+                APPROVED));
+        bookingRepository.save(new Booking(0, now.plusDays(5), now.plusDays(6), item, booker, APPROVED));
+    }
+
+    @Test
+    @DisplayName("Сводка: последнее бронирование в любом статусе, следующее - подтвержденное")
+    void computeByItemIdIn() {
+        Map<Long, ItemBookingSummaryView> summaries = summaryRepository
+                .computeByItemIdIn(List.of(item.getId(), otherItem.getId()), now).stream()
+                .collect(Collectors.toMap(ItemBookingSummaryView::getItemId, Function.identity()));
+
+        assertEquals(2, summaries.size());
+        ItemBookingSummaryView summary = summaries.get(item.getId());
+        assertEquals(lastBooking.getId(), summary.getLastBookingId());
+        assertEquals(booker.getId(), summary.getLastBookerId());
+        assertEquals(nextBooking.getId(), summary.getNextBookingId());
+        assertEquals(booker.getId(), summary.getNextBookerId());
+        assertEquals(waitingBooking.getStart(), summary.getRollAt());
+        ItemBookingSummaryView empty = summaries.get(otherItem.getId());
+        assertNull(empty.getLastBookingId());
+        assertNull(empty.getNextBookingId());
+        assertNull(empty.getRollAt());
+    }
+
+    @Test
+    @DisplayName("Сводка на момент после начала бронирования: оно становится последним")
+    void computeByItemIdInAfterRollAt() {
+        ItemBookingSummaryView summary = summaryRepository
+                .computeByItemIdIn(List.of(item.getId()), now.plusDays(1).plusHours(1)).get(0);
+
+        assertEquals(waitingBooking.getId(), summary.getLastBookingId());
+        assertEquals(nextBooking.getId(), summary.getNextBookingId());
+        assertEquals(nextBooking.getStart(), summary.getRollAt());
+    }
+
+    @Test
+    @DisplayName("Вещи, сводки которых пора пересчитать")
+    void findItemIdsToRoll() {
+        summaryRepository.save(new ItemBookingSummary(item.getId(), null, null, null, null, now.minusMinutes(1)));
+        summaryRepository.save(new ItemBookingSummary(otherItem.getId(), null, null, null, null, null));
+
+        List<Long> itemIds = summaryRepository.findItemIdsToRoll(now, PageRequest.of(0, 10));
+
+        assertEquals(List.of(item.getId()), itemIds);
+    }
+}
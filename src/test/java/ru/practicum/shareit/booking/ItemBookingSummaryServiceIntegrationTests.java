@@ -0,0 +1,146 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
+import ru.practicum.shareit.item.dto.ItemOwnerDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.booking.enums.BookingStatus.APPROVED;
+
+/**
+ * Задачи пересчета и сверки коммитят пачки в своих транзакциях, поэтому тесты идут без общей транзакции.
+ */
+@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemBookingSummaryServiceIntegrationTests {
+
+    private final ItemBookingSummaryService summaryService;
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "owner@mail.com", "Owner"));
+        booker = userRepository.save(new User(null, "booker@mail.com", "Booker"));
+        item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+    }
+
+    @Test
+    @DisplayName("Создание и подтверждение бронирования обновляют сводку вещи")
+    void createAndApproveBookingSummaryUpdated() {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        bookingDto.setStart(now.plusDays(1));
+        bookingDto.setEnd(now.plusDays(2));
+
+        long bookingId = bookingService.createBooking(booker.getId(), bookingDto).getId();
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertNull(summary.getNextBookingId());
+        assertEquals(bookingDto.getStart(), summary.getRollAt());
+
+        bookingService.approvingBooking(owner.getId(), bookingId, true);
+
+        summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(bookingId, summary.getNextBookingId());
+        assertEquals(booker.getId(), summary.getNextBookerId());
+        assertNull(summary.getLastBookingId());
+    }
+
+    @Test
+    @DisplayName("Пересчет по сроку переносит начавшееся бронирование в последнее")
+    void rollForwardStartedBookingBecomesLast() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking started = bookingRepository.save(new Booking(0, now.minusHours(1), now.plusHours(1), item, booker,
+                APPROVED));
+        summaryRepository.save(new ItemBookingSummary(item.getId(), null, null, started.getId(), booker.getId(),
+                started.getStart()));
+
+        int rolled = summaryService.rollForward(10);
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(1, rolled);
+        assertEquals(started.getId(), summary.getLastBookingId());
+        assertNull(summary.getNextBookingId());
+        assertNull(summary.getRollAt());
+    }
+
+    @Test
+    @DisplayName("Сверка исправляет разошедшуюся сводку и создает недостающие")
+    void reconcileDriftedSummaryFixed() {
+        LocalDateTime now = LocalDateTime.now();
+        Item otherItem = itemRepository.save(new Item(null, "Пила", "Ручная пила", true, owner, null));
+        Booking next = bookingRepository.save(new Booking(0, now.plusDays(1), now.plusDays(2), item, booker,
+                APPROVED));
+        summaryRepository.save(new ItemBookingSummary(item.getId(), null, null, null, null, null));
+
+        ItemOwnerDto stored = (ItemOwnerDto) itemService.getAllItems(owner.getId(), 0, 10).get(0);
+        int drifted = summaryService.reconcile(1);
+        ItemOwnerDto reconciled = (ItemOwnerDto) itemService.getAllItems(owner.getId(), 0, 10).get(0);
+
+        assertNull(stored.getNextBooking());
+        assertEquals(1, drifted);
+        assertEquals(next.getId(), reconciled.getNextBooking().getId());
+        assertEquals(next.getId(), summaryRepository.findById(item.getId()).orElseThrow().getNextBookingId());
+        assertTrue(summaryRepository.findById(otherItem.getId()).isPresent());
+        assertEquals(1, meterRegistry.get("shareit.booking.summary.drift").counter().count());
+        assertEquals(0, summaryService.reconcile(1));
+    }
+
+    @Test
+    @DisplayName("Удаление арендатора пересчитывает сводки забронированных им вещей")
+    void deleteBookerSummaryRefreshed() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking last = bookingRepository.save(new Booking(0, now.minusDays(2), now.minusDays(1), item, booker,
+                APPROVED));
+        Booking next = bookingRepository.save(new Booking(0, now.plusDays(1), now.plusDays(2), item, booker,
+                APPROVED));
+        summaryService.refresh(item.getId());
+
+        ItemBookingSummary stored = summaryRepository.findById(item.getId()).orElseThrow();
+        userService.deleteUser(booker.getId());
+        ItemBookingSummary refreshed = summaryRepository.findById(item.getId()).orElseThrow();
+
+        assertEquals(last.getId(), stored.getLastBookingId());
+        assertEquals(next.getId(), stored.getNextBookingId());
+        assertNull(refreshed.getLastBookingId());
+        assertNull(refreshed.getNextBookingId());
+        assertNull(refreshed.getRollAt());
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.phase.TimingWheel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTests {
+
+    private TimingWheel<String> wheel;
+    private final List<String> fired = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // тик 10 мс, 4 ячейки, 3 уровня: ячейки по 10, 40 и 160 мс
+        wheel = new TimingWheel<>(10, 4, 3, 0);
+    }
+
+    @Test
+    @DisplayName("Запись срабатывает на первом тике не раньше срока")
+    void advanceFiresOnFirstTickAfterDue() {
+        wheel.add(25, "a");
+
+        wheel.advance(29, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(30, fired::add);
+        assertEquals(List.of("a"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Запись старшего уровня спускается вниз и срабатывает в срок")
+    void advanceCascadesFromUpperLevel() {
+        assertTrue(wheel.add(215, "far"));
+
+        wheel.advance(150, fired::add);
+        wheel.advance(219, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(220, fired::add);
+        assertEquals(List.of("far"), fired);
+    }
+
+    @Test
+    @DisplayName("Запись с наступившим сроком срабатывает при ближайшем повороте")
+    void addOverdueFiresOnNextAdvance() {
+        wheel.advance(100, fired::add);
+
+        assertTrue(wheel.add(50, "late"));
+        wheel.advance(100, fired::add);
+
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    @DisplayName("Срок дальше горизонта колеса не принимается")
+    void addBeyondHorizonRejected() {
+        assertEquals(480, wheel.horizonMillis());
+        assertFalse(wheel.add(10_000, "x"));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("После долгой паузы срабатывают все наступившие записи всех уровней")
+    void advanceAfterPauseFiresEverything() {
+        wheel.add(15, "a");
+        wheel.add(95, "b");
+        wheel.add(170, "c");
+        wheel.add(400, "d");
+        assertEquals(4, wheel.size());
+
+        wheel.advance(1_000, fired::add);
+
+        assertEquals(Set.of("a", "b", "c", "d"), Set.copyOf(fired));
+        assertEquals(4, fired.size());
+        assertEquals(0, wheel.size());
+    }
+}
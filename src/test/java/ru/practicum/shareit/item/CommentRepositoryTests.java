@@ -4,7 +4,9 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.dto.CommentItemView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
@@ -14,6 +16,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -28,22 +31,70 @@ public class CommentRepositoryTests {
     private ItemRepository itemRepository;
 
     @Test
-    @DisplayName("Получение списка коментов")
-    void findAllByItemId() {
+    @DisplayName("Получение последних комментариев вещи")
+    void findRecentByItemId() {
         User userOne = userRepository.save(new User(1L, "2222", "11111@mail.com"));
         Item item = itemRepository.save(
                 new Item(1L, "Item", "Description", true, userOne, null));
-        Comment comment = new Comment(1L, "Text", item, userOne, LocalDateTime.now());
-        repository.save(comment);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Comment older = repository.save(new Comment(null, "Old", item, userOne, now.minusDays(1)));
+        Comment newer = repository.save(new Comment(null, "New", item, userOne, now));
 
-        List<Comment> comments = repository.findAllByItemId(comment.getId());
+        List<Comment> comments = repository.findRecentByItemId(item.getId(), PageRequest.of(0, 1));
 
         assertEquals(1, comments.size());
-        assertEquals(comment.getCreated(), comments.get(0).getCreated());
-        assertEquals(comment.getText(), comments.get(0).getText());
-        assertEquals(comment.getAuthor(), comments.get(0).getAuthor());
-        assertEquals(comment.getItem(), comments.get(0).getItem());
+        assertEquals(newer.getText(), comments.get(0).getText());
+        assertEquals(userOne.getName(), comments.get(0).getAuthor().getName());
+        assertEquals(List.of(older.getId()), ids(repository.findByItemIdAfter(item.getId(), newer.getCreated(),
+                newer.getId(), PageRequest.of(0, 10))));
+    }
 
+    @Test
+    @DisplayName("Комментарии с одинаковым временем не теряются на границе страниц")
+    void findByItemIdAfterSameCreated() {
+        User userOne = userRepository.save(new User(1L, "2222", "11111@mail.com"));
+        Item item = itemRepository.save(
+                new Item(1L, "Item", "Description", true, userOne, null));
+        LocalDateTime created = LocalDateTime.of(2023, 1, 1, 12, 0);
+        Comment first = repository.save(new Comment(null, "First", item, userOne, created));
+        Comment second = repository.save(new Comment(null, "Second", item, userOne, created));
+
+        List<Comment> comments = repository.findByItemIdAfter(item.getId(), created, second.getId(),
+                PageRequest.of(0, 10));
+
+        assertEquals(List.of(first.getId()), ids(comments));
     }
-}
 
+    @Test
+    @DisplayName("Получение последних комментариев для нескольких вещей")
+    void findRecentByItemIdIn() {
+        User userOne = userRepository.save(new User(1L, "2222", "11111@mail.com"));
+        Item item = itemRepository.save(
+                new Item(1L, "Item", "Description", true, userOne, null));
+        Item otherItem = itemRepository.save(
+                new Item(2L, "Other item", "Other description", true, userOne, null));
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < 5; i++) {
+            repository.save(new Comment(null, "Text " + i, item, userOne, now.minusHours(i)));
+        }
+        repository.save(new Comment(null, "Other text", otherItem, userOne, now));
+        repository.flush();
+
+        List<CommentItemView> comments = repository.findRecentByItemIdIn(List.of(item.getId(), otherItem.getId()), 2);
+
+        assertEquals(3, comments.size());
+        assertEquals("Text 0", comments.get(0).getText());
+        assertEquals("Text 1", comments.get(1).getText());
+        assertEquals(now, comments.get(0).getCreated());
+        assertEquals(userOne.getName(), comments.get(0).getAuthorName());
+        assertEquals(item.getId(), comments.get(0).getItemId());
+        assertEquals("Other text", comments.get(2).getText());
+        assertEquals(otherItem.getId(), comments.get(2).getItemId());
+    }
+
+    private List<Long> ids(List<Comment> comments) {
+        return comments.stream()
+                .map(Comment::getId)
+                .collect(Collectors.toList());
+    }
+}
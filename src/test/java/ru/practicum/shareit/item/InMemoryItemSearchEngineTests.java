@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mappers.ItemMapperImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchEngineTests {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private InMemoryItemSearchEngine searchEngine;
+
+    @BeforeEach
+    void setUp() {
+        searchEngine = new InMemoryItemSearchEngine(itemRepository, new ItemMapperImpl());
+    }
+
+    @Test
+    @DisplayName("Индекс строится из репозитория и содержит только доступные вещи")
+    void rebuildIndexesAvailableItems() {
+        List<Item> items = List.of(
+                new Item(1L, "Молоток", "Деревянный", true, null, null),
+                new Item(2L, "Лестница", "металлическая", true, null, null),
+                new Item(3L, "Табурет", "Деревянный табурет", false, null, null));
+        when(itemRepository.findAll(PageRequest.of(0, 1000, Sort.by("id")))).thenReturn(new PageImpl<>(items));
+
+        searchEngine.rebuild();
+
+        assertEquals(List.of(1L), ids(searchEngine.search("ДЕРЕВ", PageRequest.of(0, 10))));
+        assertEquals(List.of(2L), ids(searchEngine.search("стниц", PageRequest.of(0, 10))));
+        assertTrue(searchEngine.search("табурет", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Совпадения по названию выводятся раньше совпадений по описанию")
+    void searchRanksNameMatchesFirst() {
+        searchEngine.index(new ItemDto(1L, "Молоток", true, "Деревянный", null));
+        searchEngine.index(new ItemDto(2L, "Деревянная лестница", true, "Стремянка", null));
+        searchEngine.index(new ItemDto(3L, "Дерево", true, "Бонсай", null));
+
+        assertEquals(List.of(2L, 3L, 1L), ids(searchEngine.search("дерев", PageRequest.of(0, 10))));
+        assertEquals(List.of(3L), ids(searchEngine.search("дерев", PageRequest.of(1, 1))));
+        assertEquals(List.of(1L), ids(searchEngine.search("дерев", PageRequest.of(1, 2))));
+    }
+
+    @Test
+    @DisplayName("Поиск по подстроке короче трех символов")
+    void searchShortQuery() {
+        searchEngine.index(new ItemDto(1L, "Ус", true, "Накладной", null));
+        searchEngine.index(new ItemDto(2L, "Пила", true, "Острая пила", null));
+
+        assertEquals(List.of(1L), ids(searchEngine.search("ус", PageRequest.of(0, 10))));
+        assertEquals(List.of(2L, 1L), ids(searchEngine.search("а", PageRequest.of(0, 10))));
+    }
+
+    @Test
+    @DisplayName("Изменение названия и доступности вещи обновляет индекс")
+    void indexUpdatesExistingItem() {
+        searchEngine.index(new ItemDto(1L, "Пила", true, "Острая пила", null));
+
+        searchEngine.index(new ItemDto(1L, "Ножовка", true, "Острая", null));
+
+        assertTrue(searchEngine.search("пила", PageRequest.of(0, 10)).isEmpty());
+        assertEquals(List.of(1L), ids(searchEngine.search("ножов", PageRequest.of(0, 10))));
+
+        searchEngine.index(new ItemDto(1L, "Ножовка", false, "Острая", null));
+
+        assertTrue(searchEngine.search("ножов", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Удаленные вещи пропадают из индекса")
+    void unindexRemovesItems() {
+        searchEngine.index(new ItemDto(1L, "Пила", true, "Острая пила", null));
+        searchEngine.index(new ItemDto(2L, "Пила", true, "Тупая пила", null));
+
+        searchEngine.unindex(List.of(1L, 3L));
+
+        assertEquals(List.of(2L), ids(searchEngine.search("пила", PageRequest.of(0, 10))));
+    }
+
+    private List<Long> ids(List<ItemDto> items) {
+        return items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+}
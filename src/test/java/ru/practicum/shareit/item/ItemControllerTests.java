@@ -12,16 +12,26 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.exeption.ItemNotFoundException;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorException;
+import ru.practicum.shareit.pagination.CursorPage;
 
 import javax.validation.ValidationException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -29,6 +39,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -42,6 +54,8 @@ public class ItemControllerTests {
     private MockMvc mockMvc;
     @MockBean
     private ItemService itemService;
+    @MockBean
+    private ItemImportService itemImportService;
     private ItemDto itemDto;
 
     @BeforeEach
@@ -223,6 +237,25 @@ public class ItemControllerTests {
         verify(itemService).searchItem(userId, searchText, 0, 20);
     }
 
+    @SneakyThrows
+    @Test
+    @DisplayName("Проверка доступности вещи на период")
+    void getAvailabilityPeriodProvidedAvailabilityReturned() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 12, 0);
+        LocalDateTime to = from.plusDays(2);
+        when(itemService.getAvailability(itemId, from, to))
+                .thenReturn(new ItemAvailabilityDto(itemId, from, to, false));
+
+        mockMvc.perform(get("/items/{itemId}/availability", itemId)
+                        .param("from", "2030-01-01T12:00:00")
+                        .param("to", "2030-01-03T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(itemId), Long.class))
+                .andExpect(jsonPath("$.available", is(false)));
+
+        verify(itemService).getAvailability(itemId, from, to);
+    }
+
     @SneakyThrows
     @Test
     @DisplayName("Добавление комментария пользователем")
@@ -243,4 +276,73 @@ public class ItemControllerTests {
                 .andExpect(jsonPath("$.text", is(commentDto.getText())));
     }
 
+    @SneakyThrows
+    @Test
+    @DisplayName("Страница комментариев вещи с курсором следующей страницы в заголовке")
+    void getCommentsNextCursorInHeader() {
+        long itemId = 2L;
+        CommentDto commentDto = new CommentDto();
+        commentDto.setText("Отзыв о товаре");
+        when(itemService.getComments(itemId, null, 1)).thenReturn(new CursorPage<>(List.of(commentDto), "next"));
+
+        mockMvc.perform(get("/items/{itemId}/comments", itemId)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].text", is(commentDto.getText())));
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Страница комментариев с некорректным курсором")
+    void getCommentsInvalidCursorBadRequest() {
+        when(itemService.getComments(2L, "bad", 20)).thenThrow(new CursorException("Некорректный курсор: bad"));
+
+        mockMvc.perform(get("/items/{itemId}/comments", 2L)
+                        .param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Страница комментариев нулевого размера")
+    void getCommentsParamSizeMinInvalidBadRequest() {
+        when(itemService.getComments(2L, null, 0)).thenThrow(new CursorException("Некорректный размер страницы: 0"));
+
+        mockMvc.perform(get("/items/{itemId}/comments", 2L)
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Страница комментариев больше допустимого размера")
+    void getCommentsParamSizeMaxInvalidBadRequest() {
+        mockMvc.perform(get("/items/{itemId}/comments", 2L)
+                        .param("size", "101"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).getComments(anyLong(), any(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Массовое добавление вещей отвечает NDJSON по строкам")
+    void addItemsNdjsonResultsStreamed() {
+        doAnswer(invocation -> {
+            Consumer<ItemImportResultDto> results = invocation.getArgument(2);
+            results.accept(ItemImportResultDto.created(0, 5L));
+            results.accept(ItemImportResultDto.rejected(1, "name не может быть пустым"));
+            return 1;
+        }).when(itemImportService).importItems(eq(userId), any(), any());
+
+        mockMvc.perform(post("/items/bulk")
+                        .header("X-Sharer-User-Id", userId)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(itemDto) + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"index\":0,\"id\":5}\n" +
+                        "{\"index\":1,\"error\":\"name не может быть пустым\"}\n"));
+    }
 }
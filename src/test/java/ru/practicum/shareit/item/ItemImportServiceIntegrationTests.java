@@ -0,0 +1,132 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.bulk.ItemBulkReader;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemImportService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "db.name=test", webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemImportServiceIntegrationTests {
+
+    private final ItemImportService importService;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemRequestRepository requestRepository;
+    private final ObjectMapper objectMapper;
+
+    private User owner;
+    private ItemRequest request;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "owner@mail.com", "Owner"));
+        User requestor = userRepository.save(new User(null, "requestor@mail.com", "Requestor"));
+        request = requestRepository.save(new ItemRequest(null, "Нужна дрель", requestor, LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Импорт JSON-массива: корректные строки создаются, остальные отклоняются с причиной")
+    void importItemsArrayRowsValidated() {
+        String body = "[" +
+                "{\"name\":\"Дрель\",\"description\":\"Простая дрель\",\"available\":true,\"requestId\":" +
+                request.getId() + "}," +
+                "{\"name\":\"\",\"description\":\"Без имени\",\"available\":true}," +
+                "{\"name\":\"Пила\",\"description\":\"Ручная пила\",\"available\":true,\"requestId\":999}" +
+                "]";
+        List<ItemImportResultDto> results = new ArrayList<>();
+
+        int created = importService.importItems(owner.getId(), reader(body), results::add);
+
+        assertEquals(1, created);
+        assertEquals(3, results.size());
+        assertNotNull(results.get(0).getId());
+        assertEquals("name не может быть пустым", results.get(1).getError());
+        assertEquals("Запроса с id 999 нет в базе", results.get(2).getError());
+        List<Item> items = itemRepository.findAllByUserIdOrderByIdAsc(owner.getId(), Pageable.unpaged()).getContent();
+        assertEquals(1, items.size());
+        assertEquals(request.getId(), itemRepository.findById(results.get(0).getId()).orElseThrow()
+                .getRequest().getId());
+    }
+
+    @Test
+    @DisplayName("Импорт NDJSON больше одной пачки")
+    void importItemsNdjsonSeveralBatches() {
+        int rows = 1_001;
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            body.append("{\"name\":\"Вещь ").append(i).append("\",\"description\":\"Описание\",\"available\":true}\n");
+        }
+        List<ItemImportResultDto> results = new ArrayList<>();
+
+        int created = importService.importItems(owner.getId(), reader(body.toString()), results::add);
+
+        assertEquals(rows, created);
+        assertEquals(rows, results.size());
+        for (int i = 0; i < rows; i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertNull(results.get(i).getError());
+        }
+        assertEquals(rows, itemRepository.findAllByUserIdOrderByIdAsc(owner.getId(), Pageable.unpaged())
+                .getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Некорректный JSON посреди потока: принятые строки сохраняются, импорт завершается ошибкой")
+    void importItemsBrokenJsonStopsImport() {
+        String body = "{\"name\":\"Дрель\",\"description\":\"Простая дрель\",\"available\":true}\n" +
+                "{\"name\":\"Пила\",";
+        List<ItemImportResultDto> results = new ArrayList<>();
+
+        int created = importService.importItems(owner.getId(), reader(body), results::add);
+
+        assertEquals(1, created);
+        assertEquals(2, results.size());
+        assertNotNull(results.get(0).getId());
+        assertEquals(1, results.get(1).getIndex());
+        assertTrue(results.get(1).getError().startsWith("Некорректный JSON"));
+    }
+
+    @Test
+    @DisplayName("Импорт для несуществующего владельца")
+    void importItemsUserNotFound() {
+        List<ItemImportResultDto> results = new ArrayList<>();
+
+        assertThrows(UserNotFoundException.class, () -> importService.importItems(999L, reader("[]"), results::add));
+        assertTrue(results.isEmpty());
+    }
+
+    @SneakyThrows
+    private ItemBulkReader reader(String body) {
+        return new ItemBulkReader(objectMapper, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -5,11 +5,16 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryRepository;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mappers.ItemMapperImpl;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -18,8 +23,10 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @DataJpaTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -33,6 +40,15 @@ public class ItemRepositoryTests {
     @Autowired
     private ItemRequestRepository requestRepository;
 
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     private final ItemMapperImpl itemMapper = new ItemMapperImpl();
 
     private Item item;
@@ -69,6 +85,21 @@ public class ItemRepositoryTests {
         assertEquals(item2, items.get(1));
     }
 
+    @Test
+    @DisplayName("Получение вещей владельца вместе со сводкой бронирований")
+    void findAllWithBookingSummaryByUserId() {
+        summaryRepository.save(new ItemBookingSummary(item2.getId(), null, null, null, null, null));
+
+        List<Object[]> rows = itemRepository
+                .findAllWithBookingSummaryByUserId(1, Pageable.ofSize(2)).getContent();
+
+        assertEquals(2, rows.size());
+        assertEquals(item, rows.get(0)[0]);
+        assertNull(rows.get(0)[1]);
+        assertEquals(item2, rows.get(1)[0]);
+        assertEquals(item2.getId(), ((ItemBookingSummary) rows.get(1)[1]).getItemId());
+    }
+
     @Test
     @DisplayName("Получение списка вещей по ID")
     void findAllByRequestId() {
@@ -77,4 +108,68 @@ public class ItemRepositoryTests {
         assertEquals(1, items.size());
         assertEquals(item2, items.get(0));
     }
+
+    @Test
+    @DisplayName("Получение списка вещей по списку ID запросов")
+    void findAllByRequestIdIn() {
+        List<Item> items = itemRepository.findAllByRequestIdIn(List.of(1L, 2L));
+
+        assertEquals(1, items.size());
+        assertEquals(item2, items.get(0));
+    }
+
+    @Test
+    @DisplayName("Id вещей, удаляемых вместе с пользователем: его собственных и ответов на его запросы")
+    void findIdsDeletedWithUser() {
+        User other = userRepository.save(new User(null, "other@mail.com", "Other"));
+        Item answer = itemRepository.save(new Item(null, "Дрель", "Ударная", true, other, item2.getRequest()));
+        Item otherItem = itemRepository.save(new Item(null, "Пила", "Ножовка", true, other, null));
+
+        assertEquals(Set.of(item.getId(), item2.getId(), answer.getId()),
+                Set.copyOf(itemRepository.findIdsDeletedWithUser(item.getUser().getId())));
+        assertEquals(Set.of(otherItem.getId(), answer.getId()),
+                Set.copyOf(itemRepository.findIdsDeletedWithUser(other.getId())));
+    }
+
+    @Test
+    @DisplayName("Из счетчиков вещей вычитаются комментарии автора")
+    void subtractCommentsOfAuthor() {
+        User author = userRepository.save(new User(null, "author@mail.com", "Author"));
+        User other = userRepository.save(new User(null, "other@mail.com", "Other"));
+        LocalDateTime created = LocalDateTime.now();
+        commentRepository.save(new Comment(null, "Первый", item, author, created));
+        commentRepository.save(new Comment(null, "Второй", item, author, created));
+        commentRepository.save(new Comment(null, "Чужой", item, other, created));
+        commentRepository.save(new Comment(null, "Третий", item2, author, created));
+        item.setCommentCount(3);
+        item2.setCommentCount(1);
+        entityManager.flush();
+
+        assertEquals(2, itemRepository.subtractCommentsOfAuthor(author.getId()));
+        entityManager.clear();
+
+        assertEquals(1, itemRepository.findById(item.getId()).orElseThrow().getCommentCount());
+        assertEquals(0, itemRepository.findById(item2.getId()).orElseThrow().getCommentCount());
+    }
+
+    @Test
+    @DisplayName("Поиск доступных вещей: совпадения по названию выше совпадений по описанию")
+    void searchAvailableByNameOrDescription() {
+        ItemDto namedDto = new ItemDto();
+        namedDto.setName("Деревянная лестница");
+        namedDto.setDescription("Стремянка");
+        namedDto.setAvailable(true);
+        Item named = itemRepository.save(itemMapper.toItem(namedDto));
+        ItemDto unavailableDto = new ItemDto();
+        unavailableDto.setName("Табурет");
+        unavailableDto.setDescription("Деревянный табурет");
+        unavailableDto.setAvailable(false);
+        itemRepository.save(itemMapper.toItem(unavailableDto));
+
+        List<Item> items = itemRepository.searchAvailableByNameOrDescription("ДЕРЕВ", Pageable.ofSize(10));
+
+        assertEquals(2, items.size());
+        assertEquals(named, items.get(0));
+        assertEquals(item, items.get(1));
+    }
 }
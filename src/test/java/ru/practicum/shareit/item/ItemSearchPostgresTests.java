@@ -0,0 +1,116 @@
+package ru.practicum.shareit.item;
+
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.EmbeddedPostgresSupport;
+import ru.practicum.shareit.StatementCapture;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * План поиска вещей на PostgreSQL со схемой профиля {@code postgres}: по статистике выражений планировщик
+ * ищет редкую подстроку по частичным GIN-индексам pg_trgm, а частую - обходом первичного ключа до первой
+ * страницы. Задержку на миллионе вещей меряет {@code SearchBenchmark}.
+ */
+@DataJpaTest
+@ActiveProfiles("postgres")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StatementCapture.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ItemSearchPostgresTests {
+
+    private static final int USERS = 1_000;
+    private static final int ITEMS = 200_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StatementCapture capture;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry);
+    }
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute(String.format("INSERT INTO users (id, name, email) " +
+                "SELECT x, 'User ' || x, 'user' || x || '@mail.com' FROM generate_series(1, %d) x", USERS));
+        // одно из 40 названий - дрель, каждая десятая вещь недоступна
+        jdbcTemplate.execute(String.format("INSERT INTO items (id, name, description, available, user_id) " +
+                "SELECT x, (ARRAY['Дрель', 'Пила', 'Молоток', 'Отвертка', 'Лестница', 'Палатка', 'Велосипед', " +
+                "'Шуруповерт'])[x %% 8 + 1] || ' ' || (x / 8 %% 5) || '-' || x, " +
+                "'Описание вещи ' || md5(x::text), x %% 10 <> 0, x %% %d + 1 " +
+                "FROM generate_series(1, %d) x", USERS, ITEMS));
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    @DisplayName("Редкая подстрока ищется по частичным индексам pg_trgm по названию и описанию")
+    void rareTextUsesTrigramIndexes() {
+        List<Item> items = search("дрель 3-12");
+        String plan = explain();
+
+        assertEquals(10, items.size());
+        assertTrue(items.stream().allMatch(Item::getAvailable));
+        assertTrue(plan.contains("ix_items_name_trgm"), plan);
+        assertTrue(plan.contains("ix_items_description_trgm"), plan);
+    }
+
+    @Test
+    @DisplayName("Частую подстроку название дочитывает по первичному ключу до первой страницы")
+    void frequentTextWalksPrimaryKey() {
+        List<Item> items = search("дрель");
+        String plan = explain();
+
+        assertEquals(10, items.size());
+        assertTrue(items.stream().allMatch(item -> item.getAvailable() && item.getName().startsWith("Дрель")));
+        assertTrue(plan.contains("Index Scan using items_pkey"), plan);
+        assertFalse(plan.contains("ix_items_name_trgm"), plan);
+    }
+
+    private List<Item> search(String text) {
+        capture.start();
+        try {
+            return itemRepository.searchAvailableByNameOrDescription(text, PageRequest.of(0, 10));
+        } finally {
+            capture.stop();
+        }
+    }
+
+    private String explain() {
+        QueryInfo search = capture.statements().stream()
+                .filter(statement -> statement.getQuery().contains("search_rank"))
+                .findFirst()
+                .orElseThrow();
+        return jdbcTemplate.queryForList("EXPLAIN " + search.getQuery(), String.class,
+                        StatementCapture.parameters(search)).stream()
+                .collect(Collectors.joining("\n"));
+    }
+}
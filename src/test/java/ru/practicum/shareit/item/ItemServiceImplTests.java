@@ -9,9 +9,16 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityCache;
+import ru.practicum.shareit.booking.dto.LastBookingDto;
+import ru.practicum.shareit.booking.dto.NextBookingDto;
+import ru.practicum.shareit.booking.exception.BookingException;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentItemView;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
 import ru.practicum.shareit.item.exeption.ItemBookerException;
@@ -23,24 +30,33 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.pagination.CursorException;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.SeekCursor;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -55,11 +71,19 @@ class ItemServiceImplTests {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserExistenceValidator userExistenceValidator;
+    @Mock
     private BookingRepository bookingRepository;
     @Mock
+    private ItemBookingSummaryService bookingSummaryService;
+    @Mock
     private CommentRepository commentRepository;
     @Mock
     private ItemMapper itemMapper;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+    @Mock
+    private ItemAvailabilityCache availabilityCache;
 
 
     private ItemDto itemDto;
@@ -106,6 +130,7 @@ class ItemServiceImplTests {
         assertEquals(itemDto.getName(), actualItem.getName(), "Имена не совпадают.");
         assertEquals(itemDto.getDescription(), actualItem.getDescription(), "Email не совпадают.");
         verify(itemRepository, times(1)).save(any());
+        verify(itemSearchEngine, times(1)).index(itemDto);
     }
 
     @Test
@@ -194,10 +219,11 @@ class ItemServiceImplTests {
         Comment comment = CommentMapper.INSTANCE.toComment(commentDto);
         comment.setId(1L);
         ItemOwnerDto itemOwnerDto = new ItemOwnerDto(1L, "Табурет", "Для обуви", null,
-                null, null, List.of(commentDto));
+                null, null, List.of(commentDto), 1);
 
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        when(commentRepository.findAllByItemId(item.getId())).thenReturn(List.of(comment));
+        when(commentRepository.findRecentByItemId(item.getId(), PageRequest.of(0, 10)))
+                .thenReturn(List.of(comment));
         when(itemMapper.toItemOwnerDto(item)).thenReturn(itemOwnerDto);
 
         ItemDto actualItemDto = itemService.getItem(item.getId(), 2L);
@@ -210,7 +236,7 @@ class ItemServiceImplTests {
                 "Доступности не совпадают.");
 
         verify(itemRepository, times(1)).findById(item.getId());
-        verify(commentRepository, times(1)).findAllByItemId(item.getId());
+        verify(commentRepository, times(1)).findRecentByItemId(item.getId(), PageRequest.of(0, 10));
     }
 
     @Test
@@ -219,19 +245,16 @@ class ItemServiceImplTests {
         long itemId = 1L;
         long userId = 1L;
         Item item = new Item(1L, "Табурет", "Для обуви", true, new User(1L, "User", "user@user.ru"), null);
-        ItemOwnerDto itemOwnerDto = new ItemOwnerDto(1L, "Табурет", "Для обуви", null, null, null, List.of(commentDto));
+        ItemOwnerDto itemOwnerDto = new ItemOwnerDto(1L, "Табурет", "Для обуви", null,
+                null, null, List.of(commentDto), 1);
         Comment comment = CommentMapper.INSTANCE.toComment(commentDto);
-        List<Booking> lastBookings = new ArrayList<>();
-        Booking lastBooking = new Booking();
-        lastBookings.add(lastBooking);
-        List<Booking> nextBookings = new ArrayList<>();
-        Booking nextBooking = new Booking();
-        nextBookings.add(nextBooking);
+        List<LastBookingDto> lastBookings = List.of(new LastBookingDto(1L, 2L));
+        List<NextBookingDto> nextBookings = List.of(new NextBookingDto(2L, 2L));
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(commentRepository.findAllByItemId(itemId)).thenReturn(List.of(comment));
-        when(bookingRepository.findFirstByItemIdAndEndDateBefore(itemId)).thenReturn(lastBookings);
-        when(bookingRepository.findFirstByItemIdAndStartDateAfter(itemId)).thenReturn(nextBookings);
+        when(commentRepository.findRecentByItemId(itemId, PageRequest.of(0, 10))).thenReturn(List.of(comment));
+        when(bookingRepository.findLastBooking(itemId, PageRequest.of(0, 1))).thenReturn(lastBookings);
+        when(bookingRepository.findNextBooking(itemId, PageRequest.of(0, 1))).thenReturn(nextBookings);
         when(itemMapper.toItemOwnerDto(item)).thenReturn(itemOwnerDto);
 
 
@@ -247,9 +270,9 @@ class ItemServiceImplTests {
         assertNotNull(actualItemDto.getNextBooking());
 
         verify(itemRepository, times(1)).findById(itemId);
-        verify(commentRepository, times(1)).findAllByItemId(itemId);
-        verify(bookingRepository, times(1)).findFirstByItemIdAndEndDateBefore(itemId);
-        verify(bookingRepository, times(1)).findFirstByItemIdAndStartDateAfter(itemId);
+        verify(commentRepository, times(1)).findRecentByItemId(itemId, PageRequest.of(0, 10));
+        verify(bookingRepository, times(1)).findLastBooking(itemId, PageRequest.of(0, 1));
+        verify(bookingRepository, times(1)).findNextBooking(itemId, PageRequest.of(0, 1));
 
     }
 
@@ -263,24 +286,16 @@ class ItemServiceImplTests {
         User user = UserMapper.INSTANCE.toUser(userDto);
         Item item = new Item(1L, "Табурет", "Для обуви", true, user, null);
         item.setUser(user);
-        Comment comment = CommentMapper.INSTANCE.toComment(commentDto);
-        List<Booking> lastBookings = new ArrayList<>();
-        Booking lastBooking = new Booking();
-        lastBookings.add(lastBooking);
-        List<Booking> nextBookings = new ArrayList<>();
-        Booking nextBooking = new Booking();
-        nextBookings.add(nextBooking);
-        List<Item> items = List.of(item);
+        CommentItemView comment = commentItemView(1L, itemId);
+        ItemBookingSummary summary = new ItemBookingSummary(itemId, 1L, 2L, 2L, 2L, LocalDateTime.now().plusDays(1));
+        List<Object[]> rows = List.of(new Object[][]{{item, summary}});
         ItemOwnerDto itemOwnerDto = new ItemOwnerDto(1L, "Табурет", "Для обуви", null,
-                null, null, List.of(commentDto));
+                null, null, List.of(commentDto), 1);
         List<ItemDto> itemDtos = List.of(itemOwnerDto);
 
-        when(itemRepository.findAllByUserIdOrderByIdAsc(userId, PageRequest.of(from, size)))
-                .thenReturn(new PageImpl<>(items));
-        when(commentRepository.findAllByItemId(itemId)).thenReturn(List.of(comment));
-        when(bookingRepository.findFirstByItemIdAndEndDateBefore(itemId)).thenReturn(lastBookings);
-        when(bookingRepository.findFirstByItemIdAndStartDateAfter(itemId)).thenReturn(nextBookings);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRepository.findAllWithBookingSummaryByUserId(userId, PageRequest.of(from, size)))
+                .thenReturn(new PageImpl<>(rows));
+        when(commentRepository.findRecentByItemIdIn(List.of(itemId), 10)).thenReturn(List.of(comment));
         when(itemMapper.toItemOwnerDto(item)).thenReturn(itemOwnerDto);
 
         List<ItemDto> listItems = itemService.getAllItems(userId, from, size);
@@ -288,13 +303,16 @@ class ItemServiceImplTests {
         assertEquals(itemDtos.size(), listItems.size(), "Размер  списков не совпадает.");
         assertEquals(itemDtos.get(0).getId(), listItems.get(0).getId(), "Вещи не совпадают.");
         assertEquals(itemDtos.get(0).getName(), listItems.get(0).getName(), "Вещи не совпадают.");
+        assertEquals(1L, ((ItemOwnerDto) listItems.get(0)).getLastBooking().getId());
+        assertEquals(2L, ((ItemOwnerDto) listItems.get(0)).getNextBooking().getId());
+        assertEquals(2L, ((ItemOwnerDto) listItems.get(0)).getNextBooking().getBookerId());
+        assertEquals(1, ((ItemOwnerDto) listItems.get(0)).getComments().size());
 
         verify(itemRepository, times(1))
-                .findAllByUserIdOrderByIdAsc(userId, PageRequest.of(from, size));
-        verify(commentRepository, times(1)).findAllByItemId(itemId);
-        verify(bookingRepository, times(1)).findFirstByItemIdAndEndDateBefore(itemId);
-        verify(bookingRepository, times(1)).findFirstByItemIdAndStartDateAfter(itemId);
-        verify(userRepository, times(1)).findById(userId);
+                .findAllWithBookingSummaryByUserId(userId, PageRequest.of(from, size));
+        verify(commentRepository, times(1)).findRecentByItemIdIn(List.of(itemId), 10);
+        verify(bookingSummaryService).ensureCurrent(Map.of(itemId, summary));
+        verify(userExistenceValidator).validate(userId);
 
     }
 
@@ -324,11 +342,9 @@ class ItemServiceImplTests {
         Item item = new Item(1L, "Пила", "Острая пила", true, user, null);
         List<Item> items = List.of(item);
         ItemOwnerDto itemOwnerDto = new ItemOwnerDto(1L, "Пила", "Острая пила", null,
-                null, null, null);
+                null, null, null, 0);
 
-        when(itemRepository.findByUserAndNameOrDescription(userId, searchText, PageRequest.of(from, size)))
-                .thenReturn(new PageImpl<>(items));
-        when(itemMapper.toItemDto(item)).thenReturn(itemDto);
+        when(itemSearchEngine.search(searchText, PageRequest.of(from, size))).thenReturn(List.of(itemDto));
 
         List<ItemDto> actualItems = itemService.searchItem(userId, searchText, from, size);
 
@@ -337,8 +353,7 @@ class ItemServiceImplTests {
         assertEquals(items.get(0).getDescription(), actualItems.get(0).getDescription());
         assertEquals(items.get(0).getAvailable(), actualItems.get(0).getAvailable());
 
-        verify(itemRepository, times(1))
-                .findByUserAndNameOrDescription(userId, searchText, PageRequest.of(from, size));
+        verify(itemSearchEngine, times(1)).search(searchText, PageRequest.of(from, size));
 
     }
 
@@ -348,17 +363,13 @@ class ItemServiceImplTests {
         User user = new User(1L, "User", "user@user.ru");
         Item item = new Item(1L, "Пила", "Острая пила", true, user, null);
 
-        List<Booking> bookings = new ArrayList<>();
-        Booking booking = new Booking();
-        booking.setEnd(LocalDateTime.now().minusDays(1));
-        bookings.add(booking);
         Comment comment = CommentMapper.INSTANCE.toComment(commentDto);
         comment.setId(1L);
 
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByItemIdAndBookerId(item.getId(), user.getId()))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.existsByItemIdAndBookerIdAndEndBefore(eq(item.getId()), eq(user.getId()),
+                any(LocalDateTime.class))).thenReturn(true);
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
 
         CommentDto actualCommentDto = itemService
@@ -368,11 +379,13 @@ class ItemServiceImplTests {
         assertEquals(comment.getText(), actualCommentDto.getText());
         assertEquals(comment.getAuthor().getName(), actualCommentDto.getAuthorName());
         assertEquals(comment.getCreated(), actualCommentDto.getCreated());
+        assertEquals(1, item.getCommentCount());
 
+        verify(itemRepository, times(1)).lockById(item.getId());
         verify(itemRepository, times(1)).findById(item.getId());
         verify(commentRepository, times(1)).save(any(Comment.class));
         verify(bookingRepository, times(1))
-                .findAllByItemIdAndBookerId(item.getId(), user.getId());
+                .existsByItemIdAndBookerIdAndEndBefore(eq(item.getId()), eq(user.getId()), any(LocalDateTime.class));
         verify(userRepository, times(1)).findById(user.getId());
     }
 
@@ -405,11 +418,119 @@ class ItemServiceImplTests {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByItemIdAndBookerId(itemId, userId)).thenReturn(Collections.emptyList());
+        when(bookingRepository.existsByItemIdAndBookerIdAndEndBefore(eq(itemId), eq(userId), any(LocalDateTime.class)))
+                .thenReturn(false);
 
         assertThatThrownBy(() -> itemService.postComment(userId, itemId, commentDto))
                 .isInstanceOf(ItemBookerException.class)
                 .hasMessageContaining(
                         String.format("Вещь с id %d не была арендована пользователем с id %d", itemId, userId));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Страница комментариев с курсором следующей страницы")
+    void getCommentsMoreThanPageNextCursorReturned() {
+        User user = new User(1L, "user@user.ru", "User");
+        Item item = new Item(1L, "Пила", "Острая пила", true, user, null);
+        LocalDateTime created = LocalDateTime.of(2023, 1, 1, 12, 0);
+        Comment newer = new Comment(2L, "Новый", item, user, created);
+        Comment older = new Comment(1L, "Старый", item, user, created.minusDays(1));
+
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(commentRepository.findRecentByItemId(item.getId(), PageRequest.of(0, 2)))
+                .thenReturn(List.of(newer, older));
+
+        CursorPage<CommentDto> page = itemService.getComments(item.getId(), null, 1);
+
+        assertEquals(1, page.getContent().size());
+        assertEquals("Новый", page.getContent().get(0).getText());
+        assertEquals("User", page.getContent().get(0).getAuthorName());
+        assertEquals(SeekCursor.of(created, 2L).encode(), page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Страница комментариев после курсора")
+    void getCommentsAfterCursorLastPage() {
+        User user = new User(1L, "user@user.ru", "User");
+        Item item = new Item(1L, "Пила", "Острая пила", true, user, null);
+        LocalDateTime created = LocalDateTime.of(2023, 1, 1, 12, 0);
+        Comment older = new Comment(1L, "Старый", item, user, created.minusDays(1));
+
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(commentRepository.findByItemIdAfter(item.getId(), created, 2L, PageRequest.of(0, 11)))
+                .thenReturn(List.of(older));
+
+        CursorPage<CommentDto> page = itemService.getComments(item.getId(), SeekCursor.of(created, 2L).encode(), 10);
+
+        assertEquals(1, page.getContent().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Страница комментариев с некорректным курсором")
+    void getCommentsInvalidCursorException() {
+        Item item = new Item(1L, "Пила", "Острая пила", true, new User(1L, "User", "user@user.ru"), null);
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+
+        assertThrows(CursorException.class, () -> itemService.getComments(item.getId(), "не курсор", 10));
+    }
+
+    @Test
+    @DisplayName("Страница комментариев нулевого размера")
+    void getCommentsSizeZeroException() {
+        assertThrows(CursorException.class, () -> itemService.getComments(1L, null, 0));
+        verify(commentRepository, never()).findRecentByItemId(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Проверка доступности вещи на период")
+    void getAvailabilityPeriodIsValidAvailabilityReturned() {
+        long itemId = 1L;
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(1);
+        when(availabilityCache.isFree(itemId, start, end)).thenReturn(true);
+
+        ItemAvailabilityDto availability = itemService.getAvailability(itemId, start, end);
+
+        assertEquals(itemId, availability.getItemId());
+        assertEquals(true, availability.getAvailable());
+        verify(availabilityCache, times(1)).isFree(itemId, start, end);
+    }
+
+    @Test
+    @DisplayName("Проверка доступности вещи, когда конец периода раньше начала")
+    void getAvailabilityEndBeforeStartException() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        assertThrows(BookingException.class, () -> itemService.getAvailability(1L, start, start.minusHours(1)));
+    }
+
+    private CommentItemView commentItemView(long id, long itemId) {
+        return new CommentItemView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getText() {
+                return commentDto.getText();
+            }
+
+            @Override
+            public String getAuthorName() {
+                return "User";
+            }
+
+            @Override
+            public LocalDateTime getCreated() {
+                return commentDto.getCreated();
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+        };
+    }
+}
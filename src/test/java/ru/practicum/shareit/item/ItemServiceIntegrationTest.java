@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -24,6 +26,7 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mappers.ItemRequestMapper;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -33,7 +36,9 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.apache.logging.log4j.ThreadContext.isEmpty;
@@ -45,7 +50,7 @@ import static ru.practicum.shareit.booking.enums.BookingStatus.APPROVED;
 
 @Transactional
 @SpringBootTest(
-        properties = "db.name=test",
+        properties = {"db.name=test", "spring.jpa.properties.hibernate.generate_statistics=true"},
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -57,6 +62,7 @@ class ItemServiceIntegrationTest {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository requestRepository;
+    private final EntityManagerFactory entityManagerFactory;
 
     private ItemDto itemDto;
     private ItemDto otherItemDto;
@@ -360,4 +366,99 @@ class ItemServiceIntegrationTest {
 
     }
 
+    @Test
+    @DisplayName("Количество запросов при получении списка вещей не зависит от числа вещей на странице")
+    void getAllUserItemsStatementCountDoesNotDependOnItemsCount() {
+        long userId = userRepository.save(UserMapper.INSTANCE.toUser(userDto)).getId();
+        User otherUser = userRepository.save(UserMapper.INSTANCE.toUser(otherUserDto));
+        addItemsWithBookingsAndComments(userId, otherUser, 2);
+        long statementsForTwoItems = countStatements(() -> itemService.getAllItems(userId, 0, 20));
+
+        addItemsWithBookingsAndComments(userId, otherUser, 8);
+        long statementsForTenItems = countStatements(() -> itemService.getAllItems(userId, 0, 20));
+
+        assertEquals(10, itemService.getAllItems(userId, 0, 20).size());
+        assertEquals(statementsForTwoItems, statementsForTenItems);
+    }
+
+    @Test
+    @DisplayName("Вещь содержит последние комментарии и их общее число, остальные доступны постранично")
+    void postCommentCommentCountMaintainedAndCommentsPaged() {
+        long userId = userRepository.save(UserMapper.INSTANCE.toUser(userDto)).getId();
+        User booker = userRepository.save(UserMapper.INSTANCE.toUser(otherUserDto));
+        long itemId = itemService.addItem(userId, itemDto).getId();
+        BookingDto pastBookingDto = new BookingDto();
+        pastBookingDto.setStart(LocalDateTime.now().minusDays(7));
+        pastBookingDto.setEnd(LocalDateTime.now().minusDays(5));
+        Booking pastBooking = bookingRepository.save(BookingMapper.INSTANCE.toBooking(pastBookingDto));
+        pastBooking.setBooker(booker);
+        pastBooking.setItem(itemService.ifItemExistReturnItem(itemId));
+        pastBooking.setStatus(APPROVED);
+        int total = 15;
+        for (int i = 0; i < total; i++) {
+            commentDto.setText("комментарий " + i);
+            itemService.postComment(booker.getId(), itemId, commentDto);
+        }
+
+        ItemOwnerDto item = (ItemOwnerDto) itemService.getItem(itemId, userId);
+        ItemOwnerDto ownerItem = (ItemOwnerDto) itemService.getAllItems(userId, 0, 20).get(0);
+
+        assertEquals(total, item.getCommentCount());
+        assertEquals(10, item.getComments().size());
+        assertEquals("комментарий 14", item.getComments().get(0).getText());
+        assertEquals(total, ownerItem.getCommentCount());
+        assertEquals(10, ownerItem.getComments().size());
+        assertEquals("комментарий 14", ownerItem.getComments().get(0).getText());
+
+        List<String> texts = new ArrayList<>();
+        CursorPage<CommentDto> page = itemService.getComments(itemId, null, 4);
+        page.getContent().forEach(comment -> texts.add(comment.getText()));
+        while (page.hasNext()) {
+            page = itemService.getComments(itemId, page.getNextCursor(), 4);
+            page.getContent().forEach(comment -> texts.add(comment.getText()));
+        }
+        assertEquals(total, texts.size());
+        assertEquals("комментарий 14", texts.get(0));
+        assertEquals("комментарий 0", texts.get(total - 1));
+    }
+
+    @Test
+    @DisplayName("Комментарии несуществующей вещи")
+    void getCommentsItemNotExistException() {
+        assertThrows(ItemNotFoundException.class, () -> itemService.getComments(999L, null, 10));
+    }
+
+    private void addItemsWithBookingsAndComments(long userId, User booker, int count) {
+        for (int i = 0; i < count; i++) {
+            Item item = itemMapper.toItem(itemService.addItem(userId, itemDto));
+
+            Comment comment = commentRepository.save(CommentMapper.INSTANCE.toComment(commentDto));
+            comment.setItem(item);
+            comment.setAuthor(booker);
+
+            BookingDto lastBookingDto = new BookingDto();
+            lastBookingDto.setStart(LocalDateTime.now().minusDays(7));
+            lastBookingDto.setEnd(LocalDateTime.now().minusDays(5));
+            Booking lastBooking = bookingRepository.save(BookingMapper.INSTANCE.toBooking(lastBookingDto));
+            lastBooking.setBooker(booker);
+            lastBooking.setItem(item);
+            lastBooking.setStatus(APPROVED);
+
+            BookingDto nextBookingDto = new BookingDto();
+            nextBookingDto.setStart(LocalDateTime.now().plusDays(5));
+            nextBookingDto.setEnd(LocalDateTime.now().plusDays(7));
+            Booking nextBooking = bookingRepository.save(BookingMapper.INSTANCE.toBooking(nextBookingDto));
+            nextBooking.setBooker(booker);
+            nextBooking.setItem(item);
+            nextBooking.setStatus(APPROVED);
+        }
+        bookingRepository.flush();
+    }
+
+    private long countStatements(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
 }
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.booking.enums.BookingStatus.APPROVED;
+
+/**
+ * Вызовы с объявленным {@link StatementBudget} на заполненной базе. В профиле test превышение
+ * бюджета возвращает 500, поэтому новый N+1 в этих методах роняет тест.
+ */
+@SpringBootTest(properties = "db.name=test")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class StatementBudgetTests {
+
+    private static final int ITEMS = 15;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "owner@mail.com", "Owner"));
+        booker = userRepository.save(new User(null, "booker@mail.com", "Booker"));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS; i++) {
+            User requestor = userRepository.save(new User(null, "requestor" + i + "@mail.com", "Requestor"));
+            ItemRequest request = itemRequestRepository
+                    .save(new ItemRequest(null, "Нужна дрель " + i, requestor, now.minusDays(i)));
+            Item item = itemRepository.save(new Item(null, "Дрель " + i, "Простая дрель", true, owner, request));
+            bookingRepository.save(new Booking(0, now.minusDays(i + 2), now.minusDays(i + 1), item, booker,
+                    APPROVED));
+            bookingRepository.save(new Booking(0, now.plusDays(i + 1), now.plusDays(i + 2), item, booker,
+                    APPROVED));
+            commentRepository.save(new Comment(null, "Хорошая дрель", item, booker, now));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SqlRequestStatistics.stop();
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Список вещей владельца укладывается в бюджет запросов")
+    void getItemsWithinBudget() {
+        MvcResult result = mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertTrue(statements(result) <= 6);
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Список бронирований пользователя укладывается в бюджет запросов")
+    void getUserAllBookingWithinBudget() {
+        MvcResult result = mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .param("from", "100000"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertTrue(statements(result) <= 2);
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Список всех запросов укладывается в бюджет запросов")
+    void getAllRequestsWithinBudget() {
+        MvcResult result = mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .param("size", "20"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertTrue(statements(result) <= 3);
+    }
+
+    @Test
+    @DisplayName("Превышение бюджета в режиме тестов завершает запрос ошибкой")
+    void beforeBodyWriteBudgetExceededException() {
+        StatementBudgetAdvice advice = new StatementBudgetAdvice(true);
+        ServletServerHttpResponse response = new ServletServerHttpResponse(new MockHttpServletResponse());
+        SqlRequestStatistics.start("ItemController.getItems", 1);
+        SqlRequestStatistics.current().add(2, 5);
+
+        assertThrows(StatementBudgetExceededException.class, () -> advice.beforeBodyWrite(null, null, null, null,
+                new ServletServerHttpRequest(new MockHttpServletRequest()), response));
+        assertEquals("2", response.getHeaders().getFirst("X-Sql-Statements"));
+        assertEquals("5", response.getHeaders().getFirst("X-Sql-Time-Ms"));
+    }
+
+    private static long statements(MvcResult result) {
+        return Long.parseLong(result.getResponse().getHeader("X-Sql-Statements"));
+    }
+}
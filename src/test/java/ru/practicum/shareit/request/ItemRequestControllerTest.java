@@ -135,7 +135,7 @@ public class ItemRequestControllerTest {
                         .param("from", String.valueOf(from))
                         .param("size", String.valueOf(size))
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isInternalServerError());
+                .andExpect(status().isBadRequest());
 
         verify(requestService, never()).getAllItems(userId, from, size);
     }
@@ -154,7 +154,7 @@ public class ItemRequestControllerTest {
                         .param("from", String.valueOf(from))
                         .param("size", String.valueOf(size))
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isInternalServerError());
+                .andExpect(status().isBadRequest());
 
         verify(requestService, never()).getAllItems(userId, from, size);
     }
@@ -173,7 +173,7 @@ public class ItemRequestControllerTest {
                         .param("from", String.valueOf(from))
                         .param("size", String.valueOf(size))
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isInternalServerError());
+                .andExpect(status().isBadRequest());
 
         verify(requestService, never()).getAllItems(userId, from, size);
     }
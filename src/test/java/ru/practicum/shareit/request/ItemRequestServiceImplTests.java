@@ -22,6 +22,7 @@ import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +31,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -43,6 +45,8 @@ public class ItemRequestServiceImplTests {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserExistenceValidator userExistenceValidator;
+    @Mock
     private ItemRepository itemRepository;
     @Mock
     private ItemMapper itemMapper;
@@ -98,8 +102,8 @@ public class ItemRequestServiceImplTests {
         request.setId(1L);
         List<ItemRequest> requests = List.of(request);
         List<Item> items = List.of(item);
-        when(userRepository.findById(requestor.getId())).thenReturn(Optional.of(requestor));
-        when(itemRepository.findAllByRequestId(request.getId())).thenReturn(items);
+        item.setRequest(request);
+        when(itemRepository.findAllByRequestIdIn(List.of(request.getId()))).thenReturn(items);
         when(requestRepository.getAllByRequestorId(requestor.getId())).thenReturn(requests);
         when(itemMapper.toItemDto(item)).thenReturn(itemDto);
 
@@ -107,15 +111,15 @@ public class ItemRequestServiceImplTests {
 
         assertEquals(requests.size(), requestDtos.size());
         assertEquals(requests.get(0).getDescription(), requestDtos.get(0).getDescription());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(itemRepository, times(1)).findAllByRequestId(anyLong());
+        verify(userExistenceValidator).validate(anyLong());
+        verify(itemRepository, times(1)).findAllByRequestIdIn(List.of(request.getId()));
         verify(requestRepository, times(1)).getAllByRequestorId(anyLong());
     }
 
     @Test
     @DisplayName("Получение списка запросов, когда пользователя не существует")
     void getAllUserItemsRequestsUserDoesNotExistException() {
-        when(userRepository.findById(requestor.getId())).thenReturn(Optional.empty());
+        doThrow(UserNotFoundException.class).when(userExistenceValidator).validate(requestor.getId());
 
         assertThrows(UserNotFoundException.class,
                 () -> requestService.getAllUserItemsRequests(requestor.getId()));
@@ -132,8 +136,8 @@ public class ItemRequestServiceImplTests {
         request.setId(1L);
         List<ItemRequest> requests = List.of(request);
         List<Item> items = List.of(item);
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(itemRepository.findAllByRequestId(request.getId())).thenReturn(items);
+        item.setRequest(request);
+        when(itemRepository.findAllByRequestIdIn(List.of(request.getId()))).thenReturn(items);
         when(requestRepository.findAllItems(user.getId(), pageable)).thenReturn(requests);
         when(itemMapper.toItemDto(item)).thenReturn(itemDto);
 
@@ -141,8 +145,8 @@ public class ItemRequestServiceImplTests {
 
         assertEquals(requests.size(), requestDtos.size());
         assertEquals(requests.get(0).getDescription(), requestDtos.get(0).getDescription());
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(itemRepository, times(1)).findAllByRequestId(anyLong());
+        verify(userExistenceValidator).validate(anyLong());
+        verify(itemRepository, times(1)).findAllByRequestIdIn(List.of(request.getId()));
         verify(requestRepository, times(1)).findAllItems(user.getId(), pageable);
     }
 
@@ -151,7 +155,7 @@ public class ItemRequestServiceImplTests {
     void getAllItemsUserDoesNotExistException() {
         int from = 0;
         int size = 10;
-        when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
+        doThrow(UserNotFoundException.class).when(userExistenceValidator).validate(user.getId());
 
         assertThrows(UserNotFoundException.class,
                 () -> requestService.getAllItems(user.getId(), from, size));
@@ -164,7 +168,6 @@ public class ItemRequestServiceImplTests {
         request.setRequestor(requestor);
         request.setId(1L);
         List<Item> items = List.of(item);
-        when(userRepository.findById(requestor.getId())).thenReturn(Optional.of(requestor));
         when(itemRepository.findAllByRequestId(request.getId())).thenReturn(items);
         when(requestRepository.findById(requestor.getId())).thenReturn(Optional.of(request));
         when(itemMapper.toItemDto(item)).thenReturn(itemDto);
@@ -173,7 +176,7 @@ public class ItemRequestServiceImplTests {
                 .getItemRequest(requestor.getId(), request.getId());
 
         assertEquals(request.getDescription(), itemRequestDto.getDescription());
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userExistenceValidator).validate(anyLong());
         verify(itemRepository, times(1)).findAllByRequestId(anyLong());
         verify(requestRepository, times(1)).findById(anyLong());
     }
@@ -181,7 +184,7 @@ public class ItemRequestServiceImplTests {
     @Test
     @DisplayName("Получение запроса, когда пользователя не существует")
     void getItemRequestUserDoesNotExistException() {
-        when(userRepository.findById(requestor.getId())).thenReturn(Optional.empty());
+        doThrow(UserNotFoundException.class).when(userExistenceValidator).validate(requestor.getId());
 
         assertThrows(UserNotFoundException.class,
                 () -> requestService.getItemRequest(requestor.getId(), 1L));
@@ -190,8 +193,6 @@ public class ItemRequestServiceImplTests {
     @Test
     @DisplayName("Получение запроса, когда запроса не существует")
     void getItemRequestRequestIdDoesNotExistException() {
-        when(userRepository.findById(requestor.getId())).thenReturn(Optional.of(requestor));
-
         assertThrows(ItemNotFoundException.class,
                 () -> requestService.getItemRequest(requestor.getId(), 1L));
     }
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -24,15 +26,17 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
 @SpringBootTest(
-        properties = "db.name=test",
+        properties = {"db.name=test", "spring.jpa.properties.hibernate.generate_statistics=true"},
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -43,6 +47,7 @@ public class ItemRequestServiceIntegrationTests {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final ItemMapperImpl itemMapper;
+    private final EntityManagerFactory entityManagerFactory;
 
     private UserDto requestorDto;
     private UserDto userDto;
@@ -124,6 +129,24 @@ public class ItemRequestServiceIntegrationTests {
         assertEquals(requests.get(0).getDescription(), actualList.get(0).getDescription());
     }
 
+    @Test
+    @DisplayName("Количество запросов к базе при получении списка всех запросов не зависит от их числа")
+    void getAllItemsStatementCountDoesNotDependOnRequestsCount() {
+        User user = userRepository.save(UserMapper.INSTANCE.toUser(userDto));
+        User requestor = userRepository.save(UserMapper.INSTANCE.toUser(requestorDto));
+        addRequestsWithItems(requestor, 1);
+        long statementsForOneRequest = countStatements(() -> requestService.getAllItems(user.getId(), 0, 20));
+
+        addRequestsWithItems(requestor, 9);
+        long statementsForTenRequests = countStatements(() -> requestService.getAllItems(user.getId(), 0, 20));
+
+        List<ItemRequestDto> actualList = requestService.getAllItems(user.getId(), 0, 20);
+        assertEquals(10, actualList.size());
+        assertEquals(1, actualList.get(0).getItems().size());
+        assertEquals(statementsForOneRequest, statementsForTenRequests);
+        assertTrue(statementsForTenRequests <= 3);
+    }
+
     @Test
     @DisplayName("Получение списка запросов, когда пользователя не существует")
     void getAllItemsUserDoesNotExistException() {
@@ -165,4 +188,21 @@ public class ItemRequestServiceIntegrationTests {
         assertThrows(ItemNotFoundException.class,
                 () -> requestService.getItemRequest(requestor.getId(), 1L));
     }
+
+    private void addRequestsWithItems(User requestor, int count) {
+        for (int i = 0; i < count; i++) {
+            ItemRequest request = requestRepository.save(ItemRequestMapper.INSTANCE.toItemRequest(requestDto));
+            request.setRequestor(requestor);
+            Item item = itemRepository.save(itemMapper.toItem(itemDto));
+            item.setRequest(request);
+        }
+        itemRepository.flush();
+    }
+
+    private long countStatements(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
 }
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserExistenceValidatorTests {
+
+    @Mock
+    private UserRepository userRepository;
+    private UserExistenceValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new UserExistenceValidator(userRepository, 100);
+    }
+
+    @Test
+    @DisplayName("Повторная проверка известного пользователя не обращается к базе")
+    void validateKnownUserNoQuery() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user()));
+
+        validator.validate(1L);
+        validator.validate(1L);
+
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Проверка несуществующего пользователя")
+    void validateUnknownUserException() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> validator.validate(1L));
+        assertThrows(UserNotFoundException.class, () -> validator.validate(1L));
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("После удаления пользователь снова проверяется по базе")
+    void validateForgottenUserQueriedAgain() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user())).thenReturn(Optional.empty());
+        validator.validate(1L);
+
+        validator.forget(1L);
+
+        assertThrows(UserNotFoundException.class, () -> validator.validate(1L));
+    }
+
+    @Test
+    @DisplayName("Удаление, закоммиченное во время проверки, не оставляет id запомненным")
+    void validateForgetDuringLookupUserQueriedAgain() throws Exception {
+        AtomicReference<Thread> forgetting = new AtomicReference<>();
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            // пользователь уже прочитан, удаление коммитится до того, как проверка запомнит id
+            Thread thread = new Thread(() -> validator.forget(1L));
+            forgetting.set(thread);
+            thread.start();
+            while (thread.isAlive() && thread.getState() != Thread.State.BLOCKED) {
+                Thread.onSpinWait();
+            }
+            return Optional.of(user());
+        }).thenReturn(Optional.empty());
+
+        validator.validate(1L);
+        forgetting.get().join();
+
+        assertThrows(UserNotFoundException.class, () -> validator.validate(1L));
+    }
+
+    private static User user() {
+        return new User(1L, "user@user.ru", "User");
+    }
+}
@@ -4,9 +4,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityCache;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.EmailException;
 import ru.practicum.shareit.user.exception.UserException;
@@ -14,8 +21,11 @@ import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceValidator;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +35,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -36,6 +48,20 @@ public class UserServiceTests {
     private UserServiceImpl userService;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private UserExistenceValidator userExistenceValidator;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ItemBookingSummaryService bookingSummaryService;
+    @Mock
+    private ItemAvailabilityCache availabilityCache;
 
     private User user;
 
@@ -157,10 +183,23 @@ public class UserServiceTests {
     @DisplayName("Удаление пользователя")
     void deleteUserUserIdExistsDeleteUser() {
         long userId = 1L;
+        Cache cache = mock(Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(itemRepository.findIdsDeletedWithUser(userId)).thenReturn(List.of(2L, 3L));
+        when(bookingRepository.findItemIdsByBookerId(userId)).thenReturn(List.of(3L, 4L));
 
         userService.deleteUser(userId);
 
-        verify(userRepository).deleteById(userId);
+        InOrder inOrder = inOrder(itemRepository, userRepository, bookingSummaryService);
+        inOrder.verify(itemRepository).subtractCommentsOfAuthor(userId);
+        inOrder.verify(userRepository).deleteById(userId);
+        inOrder.verify(userRepository).flush();
+        inOrder.verify(bookingSummaryService).refreshAll(List.of(4L));
+        verify(itemSearchEngine).unindex(List.of(2L, 3L));
+        verify(cache).evict(Item.class);
+        verify(userExistenceValidator).forget(userId);
+        verify(availabilityCache).evict(List.of(2L, 3L));
+        verify(availabilityCache).evict(List.of(4L));
     }
 
 